@@ -0,0 +1,170 @@
+/**
+ * Converts between DD/MM/YYYY date strings and epoch days.
+ * An epoch day is the number of days since 01/01/1970, so stays can be stored as plain ints
+ * and compared, overlapped and counted with integer arithmetic.
+ * Parsing is strict: the day must exist in the given month, including leap years.
+ */
+public final class BookingDate
+{
+    /** Returned by tryParse when a string is not a valid date */
+    public static final int INVALID = Integer.MIN_VALUE;
+    
+    /**
+     * Utility class, not meant to be instantiated
+     */
+    private BookingDate()
+    {
+    }
+    
+    /**
+     * Parse a DD/MM/YYYY date into an epoch day
+     * @param date The date string to parse
+     * @return The epoch day of the date
+     * @throws IllegalArgumentException if the string is not a valid DD/MM/YYYY date
+     */
+    public static int parse(String date)
+    {
+        int epochDay = tryParse(date);
+        if (epochDay == INVALID)
+        {
+            throw new IllegalArgumentException("Invalid date (expected DD/MM/YYYY): " + date);
+        }
+        return epochDay;
+    }
+    
+    /**
+     * Parse a DD/MM/YYYY date into an epoch day without throwing or allocating
+     * @param date The date string to parse (may be null)
+     * @return The epoch day of the date, or INVALID if the string is not a valid date
+     */
+    public static int tryParse(CharSequence date)
+    {
+        if (date == null || date.length() != 10 || date.charAt(2) != '/' || date.charAt(5) != '/')
+        {
+            return INVALID;
+        }
+        int day = digits(date, 0, 2);
+        int month = digits(date, 3, 5);
+        int year = digits(date, 6, 10);
+        if (day < 0 || month < 0 || year < 0)
+        {
+            return INVALID;
+        }
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month))
+        {
+            return INVALID;
+        }
+        return toEpochDay(year, month, day);
+    }
+    
+    /**
+     * Check if a string is a valid DD/MM/YYYY date
+     * @param date The date string to check
+     * @return true if valid, false otherwise
+     */
+    public static boolean isValid(String date)
+    {
+        return tryParse(date) != INVALID;
+    }
+    
+    /**
+     * Get today's date as an epoch day, in the system time zone
+     * @return The epoch day of the current date
+     */
+    public static int today()
+    {
+        return (int) java.time.LocalDate.now().toEpochDay();
+    }
+    
+    /**
+     * Format an epoch day as a DD/MM/YYYY string for display
+     * @param epochDay The epoch day to format
+     * @return The date in DD/MM/YYYY format
+     */
+    public static String format(int epochDay)
+    {
+        // Inverse of toEpochDay, working in 400-year eras that start on 1 March
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        
+        char[] text = new char[10];
+        text[0] = (char) ('0' + day / 10);
+        text[1] = (char) ('0' + day % 10);
+        text[2] = '/';
+        text[3] = (char) ('0' + month / 10);
+        text[4] = (char) ('0' + month % 10);
+        text[5] = '/';
+        text[6] = (char) ('0' + year / 1000 % 10);
+        text[7] = (char) ('0' + year / 100 % 10);
+        text[8] = (char) ('0' + year / 10 % 10);
+        text[9] = (char) ('0' + year % 10);
+        return new String(text);
+    }
+    
+    /**
+     * Convert a calendar date to an epoch day
+     * @param year The year (1-9999)
+     * @param month The month (1-12)
+     * @param day The day of the month
+     * @return The number of days since 01/01/1970
+     */
+    public static int toEpochDay(int year, int month, int day)
+    {
+        // Count from 1 March so the leap day falls at the end of the year
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+    
+    /**
+     * Get the number of days in a month
+     * @param year The year (for leap year February)
+     * @param month The month (1-12)
+     * @return The number of days in the month
+     */
+    public static int daysInMonth(int year, int month)
+    {
+        switch (month)
+        {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+    
+    /**
+     * Read a run of decimal digits
+     * @return The numeric value, or -1 if any character is not a digit
+     */
+    private static int digits(CharSequence text, int from, int to)
+    {
+        int value = 0;
+        for (int i = from; i < to; i++)
+        {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9')
+            {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,301 @@
+/**
+ * Interval index of the bookings held by a single room.
+ * A balanced (AVL) search tree ordered by check-in day, where every node also records
+ * the latest check-out day found in its subtree. This lets an overlap test skip whole
+ * subtrees, so checking a stay against k bookings takes O(log k) instead of O(k).
+ * Stays are half-open day ranges: the check-out day is free for the next guest.
+ */
+public class BookingIntervalTree
+{
+    private Node root;
+    private int size;
+    
+    /**
+     * Callback for visiting stays found by forEachOverlap
+     */
+    public interface StayVisitor
+    {
+        /**
+         * Visit a single stay
+         * @param start The check-in day
+         * @param end The check-out day
+         * @param bookingID The ID of the booking that holds the stay
+         */
+        void visit(int start, int end, int bookingID);
+    }
+    
+    /**
+     * A single booked stay inside the tree
+     */
+    private static class Node
+    {
+        int start;
+        int end;
+        int bookingID;
+        int maxEnd;
+        int height;
+        Node left;
+        Node right;
+        
+        Node(int start, int end, int bookingID)
+        {
+            this.start = start;
+            this.end = end;
+            this.bookingID = bookingID;
+            this.maxEnd = end;
+            this.height = 1;
+        }
+    }
+    
+    /**
+     * Get the number of stays in the tree
+     * @return The stay count
+     */
+    public int size()
+    {
+        return size;
+    }
+    
+    /**
+     * Check if the tree holds no stays
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+    
+    /**
+     * Add a booked stay to the tree
+     * @param start The check-in day
+     * @param end The check-out day
+     * @param bookingID The ID of the booking that holds the stay
+     */
+    public void insert(int start, int end, int bookingID)
+    {
+        root = insert(root, start, end, bookingID);
+        size++;
+    }
+    
+    /**
+     * Remove a booked stay from the tree
+     * @param start The check-in day the stay was inserted with
+     * @param bookingID The ID of the booking that holds the stay
+     * @return true if the stay was removed, false if not found
+     */
+    public boolean remove(int start, int bookingID)
+    {
+        int before = size;
+        root = remove(root, start, bookingID);
+        return size < before;
+    }
+    
+    /**
+     * Check if any stay in the tree overlaps the given range.
+     * Two ranges overlap when each one starts before the other ends.
+     * @param start The first day of the range
+     * @param end The day after the last day of the range
+     * @return true if an overlapping stay exists, false otherwise
+     */
+    public boolean overlaps(int start, int end)
+    {
+        Node node = root;
+        while (node != null && node.maxEnd > start)
+        {
+            if (node.start < end && node.end > start)
+            {
+                return true;
+            }
+            if (node.left != null && node.left.maxEnd > start)
+            {
+                // If the left subtree has no overlap, nothing to the right can overlap either
+                node = node.left;
+            }
+            else if (node.start < end)
+            {
+                node = node.right;
+            }
+            else
+            {
+                return false;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Visit every stay that overlaps the given range, in check-in order
+     * @param start The first day of the range
+     * @param end The day after the last day of the range
+     * @param visitor The callback to receive each overlapping stay
+     */
+    public void forEachOverlap(int start, int end, StayVisitor visitor)
+    {
+        forEachOverlap(root, start, end, visitor);
+    }
+    
+    /**
+     * Recursive overlap walk that skips subtrees which end too early or start too late
+     */
+    private void forEachOverlap(Node node, int start, int end, StayVisitor visitor)
+    {
+        if (node == null || node.maxEnd <= start)
+        {
+            return;
+        }
+        forEachOverlap(node.left, start, end, visitor);
+        if (node.start < end)
+        {
+            if (node.end > start)
+            {
+                visitor.visit(node.start, node.end, node.bookingID);
+            }
+            forEachOverlap(node.right, start, end, visitor);
+        }
+    }
+    
+    /**
+     * Recursive insert that rebalances on the way back up
+     */
+    private Node insert(Node node, int start, int end, int bookingID)
+    {
+        if (node == null)
+        {
+            return new Node(start, end, bookingID);
+        }
+        if (compare(start, bookingID, node) < 0)
+        {
+            node.left = insert(node.left, start, end, bookingID);
+        }
+        else
+        {
+            node.right = insert(node.right, start, end, bookingID);
+        }
+        return rebalance(node);
+    }
+    
+    /**
+     * Recursive remove that rebalances on the way back up
+     */
+    private Node remove(Node node, int start, int bookingID)
+    {
+        if (node == null)
+        {
+            return null;
+        }
+        int cmp = compare(start, bookingID, node);
+        if (cmp < 0)
+        {
+            node.left = remove(node.left, start, bookingID);
+        }
+        else if (cmp > 0)
+        {
+            node.right = remove(node.right, start, bookingID);
+        }
+        else
+        {
+            size--;
+            if (node.left == null)
+            {
+                return node.right;
+            }
+            if (node.right == null)
+            {
+                return node.left;
+            }
+            // Replace with the in-order successor, then remove the successor from the right subtree
+            Node successor = node.right;
+            while (successor.left != null)
+            {
+                successor = successor.left;
+            }
+            node.start = successor.start;
+            node.end = successor.end;
+            node.bookingID = successor.bookingID;
+            size++;
+            node.right = remove(node.right, successor.start, successor.bookingID);
+        }
+        return rebalance(node);
+    }
+    
+    /**
+     * Order stays by check-in day, breaking ties by booking ID
+     */
+    private static int compare(int start, int bookingID, Node node)
+    {
+        if (start != node.start)
+        {
+            return start < node.start ? -1 : 1;
+        }
+        return Integer.compare(bookingID, node.bookingID);
+    }
+    
+    /**
+     * Restore the AVL height invariant at a node and refresh its cached values
+     */
+    private static Node rebalance(Node node)
+    {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1)
+        {
+            if (height(node.left.left) < height(node.left.right))
+            {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1)
+        {
+            if (height(node.right.right) < height(node.right.left))
+            {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+    
+    private static Node rotateRight(Node node)
+    {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+    
+    private static Node rotateLeft(Node node)
+    {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+    
+    /**
+     * Recompute the height and latest check-out day of a node from its children
+     */
+    private static void update(Node node)
+    {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        int maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd)
+        {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > maxEnd)
+        {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+    
+    private static int height(Node node)
+    {
+        return node == null ? 0 : node.height;
+    }
+}
@@ -0,0 +1,1002 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of the changes made to a HotelManager.
+ *
+ * Each change is encoded as one record: its length, a CRC32 checksum and the payload.
+ * Records are queued in memory by the thread making the change and written by a single
+ * writer thread, which writes everything queued since its last pass and then syncs the
+ * file once (group commit). A caller waits for its record with awaitDurable, after
+ * releasing its own locks, so a burst of bookings shares one sync instead of paying one each.
+ *
+ * The journal is a series of numbered segment files in the data directory. A checkpoint
+ * starts a new segment and then writes a snapshot of the whole state as of that point, in the
+ * same record format; once the snapshot is safely on disk the segments and snapshots before it
+ * are deleted. Opening the journal loads the latest snapshot and replays only the segments
+ * after it, so startup time depends on the size of the hotel, not on its history.
+ * A record cut short by a crash, or one whose checksum does not match, ends the replay of the
+ * last segment and is cut off so new records follow the last good one.
+ */
+public class BookingJournal
+{
+    // Record types
+    private static final byte ROOM_ADDED = 1;
+    private static final byte ROOM_REMOVED = 2;
+    private static final byte CUSTOMER_ADDED = 3;
+    private static final byte BOOKING_ADDED = 4;
+    private static final byte BOOKING_CANCELLED = 5;
+    private static final byte RATE_SET = 6;
+    private static final byte RATE_CLEARED = 7;
+    private static final byte BOOKINGS_ADDED = 8;
+    private static final byte ROOM_CHANGED = 9;
+    
+    // Length and checksum in front of every record
+    private static final int HEADER_BYTES = 8;
+    
+    // Largest payload a record may have; anything longer is treated as damage on replay
+    private static final int MAX_RECORD_BYTES = 1 << 24;
+    
+    // Segment and snapshot files are named hotel-<number>.journal and hotel-<number>.snapshot
+    private static final String FILE_PREFIX = "hotel-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    
+    private final File directory;
+    private final int recoveredRecords;
+    private final Thread writer;
+    
+    private final ReentrantLock queueLock;
+    private final Condition workQueued;
+    private final Condition batchSynced;
+    private byte[] pending;
+    private int pendingBytes;
+    private long appendedSeq;
+    private long durableSeq;
+    private IOException failure;
+    private boolean closed;
+    private FileChannel channel;
+    private long segment;
+    private volatile long segmentBytes;
+    
+    /**
+     * Writes the fields of one record
+     */
+    private interface RecordBody
+    {
+        void write(DataOutputStream out) throws IOException;
+    }
+    
+    /**
+     * Callback that receives the changes read back from a journal, in the order they were made
+     */
+    public interface Handler
+    {
+        /**
+         * A room was added
+         * @param room The room
+         */
+        void roomAdded(Room room);
+        
+        /**
+         * A room was removed
+         * @param roomNumber The room number
+         */
+        void roomRemoved(int roomNumber);
+        
+        /**
+         * A room's price or availability was changed
+         * @param roomNumber The room number
+         * @param priceCentsPerNight The room's nightly rate in cents
+         * @param available The room's availability status
+         */
+        void roomChanged(int roomNumber, long priceCentsPerNight, boolean available);
+        
+        /**
+         * A customer was added
+         * @param customer The customer (the same object as in the customer's bookings)
+         */
+        void customerAdded(Customer customer);
+        
+        /**
+         * A booking was made
+         * @param booking The booking, with its original ID and total price
+         */
+        void bookingAdded(Booking booking);
+        
+        /**
+         * A booking was cancelled
+         * @param bookingID The booking ID
+         */
+        void bookingCancelled(int bookingID);
+        
+        /**
+         * A room type's rate was set for a range of nights
+         * @param roomType The room type
+         * @param fromDay The first night as an epoch day
+         * @param toDay The day after the last night
+         * @param weekdays The nights of the week set, one bit per day from Monday (bit 0)
+         * @param centsPerNight The nightly rate in cents
+         */
+        void rateSet(String roomType, int fromDay, int toDay, int weekdays, long centsPerNight);
+        
+        /**
+         * A room type's rate was cleared for a range of nights
+         * @param roomType The room type
+         * @param fromDay The first night as an epoch day
+         * @param toDay The day after the last night
+         * @param weekdays The nights of the week cleared, one bit per day from Monday (bit 0)
+         */
+        void rateCleared(String roomType, int fromDay, int toDay, int weekdays);
+    }
+    
+    /**
+     * Open a journal, replaying the latest snapshot and the segments after it, and start its writer thread
+     * @param directory The directory holding the journal's segment and snapshot files
+     * @param handler The callback that receives the replayed changes
+     * @return The open journal
+     * @throws IllegalStateException if the journal cannot be read or opened for writing
+     */
+    public static BookingJournal open(File directory, Handler handler)
+    {
+        try
+        {
+            return new BookingJournal(directory, handler);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Could not open journal in " + directory.getAbsolutePath(), e);
+        }
+    }
+    
+    /**
+     * Constructor for BookingJournal class.
+     * Replays the latest snapshot and the segments after it, drops any damaged tail of the
+     * last segment, removes files a finished checkpoint made obsolete and starts the writer thread.
+     */
+    private BookingJournal(File directory, Handler handler) throws IOException
+    {
+        this.directory = directory;
+        long[] snapshots = listNumbers(SNAPSHOT_SUFFIX);
+        long[] segments = listNumbers(SEGMENT_SUFFIX);
+        long base = snapshots.length == 0 ? 0 : snapshots[snapshots.length - 1];
+        Replay replay = new Replay(handler);
+        if (snapshots.length > 0)
+        {
+            replay.file(snapshotFile(base), false);
+        }
+        segment = base;
+        long validBytes = 0;
+        for (int i = 0; i < segments.length; i++)
+        {
+            if (segments[i] >= base)
+            {
+                segment = segments[i];
+                validBytes = replay.file(segmentFile(segment), i == segments.length - 1);
+            }
+        }
+        this.recoveredRecords = replay.count;
+        deleteBefore(base);
+        
+        channel = FileChannel.open(segmentFile(segment).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > validBytes)
+        {
+            channel.truncate(validBytes);
+        }
+        channel.position(validBytes);
+        segmentBytes = validBytes;
+        
+        this.queueLock = new ReentrantLock();
+        this.workQueued = queueLock.newCondition();
+        this.batchSynced = queueLock.newCondition();
+        this.pending = new byte[8192];
+        
+        this.writer = new Thread(this::writeBatches, "booking-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    /**
+     * Get the number of records replayed when the journal was opened, snapshot included
+     * @return The record count (0 for a new journal)
+     */
+    public int getRecoveredRecords()
+    {
+        return recoveredRecords;
+    }
+    
+    /**
+     * Get the size of the segment currently being written
+     * @return The number of bytes written to the current segment
+     */
+    public long getSegmentBytes()
+    {
+        return segmentBytes;
+    }
+    
+    /**
+     * Queue a record for a room that was added
+     * @param room The room
+     * @return The record's sequence number, to pass to awaitDurable
+     */
+    public long recordRoomAdded(Room room)
+    {
+        return append(ROOM_ADDED, out -> writeRoom(out, room));
+    }
+    
+    /**
+     * Queue a record for a room that was removed
+     * @param roomNumber The room number
+     * @return The record's sequence number, to pass to awaitDurable
+     */
+    public long recordRoomRemoved(int roomNumber)
+    {
+        return append(ROOM_REMOVED, out -> out.writeInt(roomNumber));
+    }
+    
+    /**
+     * Queue a record for a room whose price or availability was changed
+     * @param room The room, as changed
+     * @return The record's sequence number, to pass to awaitDurable
+     */
+    public long recordRoomChanged(Room room)
+    {
+        return append(ROOM_CHANGED, out ->
+        {
+            out.writeInt(room.getRoomNumber());
+            out.writeLong(room.getPriceCentsPerNight());
+            out.writeBoolean(room.isAvailable());
+        });
+    }
+    
+    /**
+     * Queue a record for a customer that was added
+     * @param customer The customer
+     * @return The record's sequence number, to pass to awaitDurable
+     */
+    public long recordCustomerAdded(Customer customer)
+    {
+        return append(CUSTOMER_ADDED, out -> writeCustomer(out, customer));
+    }
+    
+    /**
+     * Queue a record for a booking that was made.
+     * The record carries the booking's customer and room as well, so it can be replayed on its own.
+     * @param booking The booking
+     * @return The record's sequence number, to pass to awaitDurable
+     */
+    public long recordBookingAdded(Booking booking)
+    {
+        return append(BOOKING_ADDED, out -> writeBooking(out, booking));
+    }
+    
+    /**
+     * Queue one record for a group of bookings made together.
+     * The record is checked as a whole on replay, so a crash never leaves only part of the group.
+     * @param group The bookings
+     * @return The record's sequence number, to pass to awaitDurable
+     * @throws IllegalArgumentException if the group is too large for one record
+     */
+    public long recordBookingsAdded(List<Booking> group)
+    {
+        return append(BOOKINGS_ADDED, out ->
+        {
+            out.writeInt(group.size());
+            for (Booking booking : group)
+            {
+                writeBooking(out, booking);
+            }
+        });
+    }
+    
+    /**
+     * Queue a record for a booking that was cancelled
+     * @param bookingID The booking ID
+     * @return The record's sequence number, to pass to awaitDurable
+     */
+    public long recordBookingCancelled(int bookingID)
+    {
+        return append(BOOKING_CANCELLED, out -> out.writeInt(bookingID));
+    }
+    
+    /**
+     * Queue a record for a room type's rate being set
+     * @param roomType The room type
+     * @param fromDay The first night as an epoch day
+     * @param toDay The day after the last night
+     * @param weekdays The nights of the week set
+     * @param centsPerNight The nightly rate in cents
+     * @return The record's sequence number, to pass to awaitDurable
+     */
+    public long recordRateSet(String roomType, int fromDay, int toDay, int weekdays, long centsPerNight)
+    {
+        return append(RATE_SET, out -> writeRate(out, roomType, fromDay, toDay, weekdays, centsPerNight));
+    }
+    
+    /**
+     * Queue a record for a room type's rate being cleared
+     * @param roomType The room type
+     * @param fromDay The first night as an epoch day
+     * @param toDay The day after the last night
+     * @param weekdays The nights of the week cleared
+     * @return The record's sequence number, to pass to awaitDurable
+     */
+    public long recordRateCleared(String roomType, int fromDay, int toDay, int weekdays)
+    {
+        return append(RATE_CLEARED, out -> writeRate(out, roomType, fromDay, toDay, weekdays, 0));
+    }
+    
+    /**
+     * Wait until a record, and every record queued before it, has been written and synced to disk
+     * @param seq The record's sequence number
+     * @throws IllegalStateException if the journal could not be written
+     */
+    public void awaitDurable(long seq)
+    {
+        boolean interrupted = false;
+        queueLock.lock();
+        try
+        {
+            while (durableSeq < seq && failure == null)
+            {
+                try
+                {
+                    batchSynced.await();
+                }
+                catch (InterruptedException e)
+                {
+                    // Keep waiting: the caller's change has already been applied in memory
+                    interrupted = true;
+                }
+            }
+            if (durableSeq < seq)
+            {
+                throw new IllegalStateException("Could not write journal in " + directory.getAbsolutePath(), failure);
+            }
+        }
+        finally
+        {
+            queueLock.unlock();
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Start a new segment, so that a snapshot can stand in for everything written before it.
+     * Waits until every queued record is on disk, so the caller must make sure no new records
+     * are queued meanwhile (HotelManager holds all of its locks) and must not wait for a record itself.
+     * @return The number of the new segment, to pass to writeSnapshot
+     * @throws IllegalStateException if the journal could not be written or the new segment created
+     */
+    public long rotate()
+    {
+        queueLock.lock();
+        try
+        {
+            while (durableSeq < appendedSeq && failure == null)
+            {
+                batchSynced.awaitUninterruptibly();
+            }
+            if (failure != null || closed)
+            {
+                throw new IllegalStateException("Journal in " + directory.getAbsolutePath() + " is closed", failure);
+            }
+            // The writer thread is idle until the next record, so the file can be swapped under it
+            long next = segment + 1;
+            FileChannel opened = FileChannel.open(segmentFile(next).toPath(), StandardOpenOption.CREATE,
+                                                  StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            channel.close();
+            channel = opened;
+            segment = next;
+            segmentBytes = 0;
+            return next;
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Could not start a new journal segment in " + directory.getAbsolutePath(), e);
+        }
+        finally
+        {
+            queueLock.unlock();
+        }
+    }
+    
+    /**
+     * Write a snapshot of the state as of the start of a segment, then delete the segments and
+     * snapshots it replaces. The snapshot is written to a temporary file and renamed once synced,
+     * so a crash part way through leaves the previous snapshot and segments in place.
+     * Can run on any thread while the journal keeps accepting records.
+     * @param segment The segment number returned by rotate when the state was captured
+     * @param rooms The rooms at that point
+     * @param customers The customers at that point
+     * @param bookings The bookings at that point
+     * @param rates The room rates at that point
+     * @throws IllegalStateException if the snapshot cannot be written
+     */
+    public void writeSnapshot(long segment, List<Room> rooms, List<Customer> customers, List<Booking> bookings,
+                              RateCalendar rates)
+    {
+        File target = snapshotFile(segment);
+        File temporary = new File(directory, target.getName() + ".tmp");
+        try
+        {
+            try (FileOutputStream file = new FileOutputStream(temporary);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 65536)))
+            {
+                for (Room room : rooms)
+                {
+                    writeFramed(out, encode(ROOM_ADDED, body -> writeRoom(body, room)));
+                }
+                for (Customer customer : customers)
+                {
+                    writeFramed(out, encode(CUSTOMER_ADDED, body -> writeCustomer(body, customer)));
+                }
+                for (Booking booking : bookings)
+                {
+                    writeFramed(out, encode(BOOKING_ADDED, body -> writeBooking(body, booking)));
+                }
+                try
+                {
+                    rates.forEachRange((roomType, fromDay, toDay, centsPerNight) ->
+                    {
+                        try
+                        {
+                            writeFramed(out, encode(RATE_SET, body ->
+                                writeRate(body, roomType, fromDay, toDay, RateCalendar.ALL_NIGHTS, centsPerNight)));
+                        }
+                        catch (IOException e)
+                        {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+                catch (UncheckedIOException e)
+                {
+                    throw e.getCause();
+                }
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e)
+        {
+            temporary.delete();
+            throw new IllegalStateException("Could not write snapshot " + target.getAbsolutePath(), e);
+        }
+        deleteBefore(segment);
+    }
+    
+    /**
+     * Write any queued records, stop the writer thread and close the file
+     */
+    public void close()
+    {
+        queueLock.lock();
+        try
+        {
+            closed = true;
+            workQueued.signal();
+        }
+        finally
+        {
+            queueLock.unlock();
+        }
+        try
+        {
+            writer.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        try
+        {
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            // Every queued record has already been synced or has failed
+        }
+    }
+    
+    /**
+     * Encode a record's payload: its type followed by its fields
+     */
+    private static byte[] encode(byte type, RecordBody body)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try
+        {
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            body.write(out);
+        }
+        catch (IOException e)
+        {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Write a payload with its length and checksum in front
+     */
+    private static void writeFramed(DataOutputStream out, byte[] payload) throws IOException
+    {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        out.writeInt(payload.length);
+        out.writeInt((int) crc.getValue());
+        out.write(payload);
+    }
+    
+    /**
+     * Encode a record, frame it and add it to the queue for the writer thread
+     * @return The record's sequence number
+     * @throws IllegalArgumentException if the record is too large to be replayed
+     */
+    private long append(byte type, RecordBody body)
+    {
+        byte[] payload = encode(type, body);
+        if (payload.length > MAX_RECORD_BYTES)
+        {
+            throw new IllegalArgumentException("Journal record of " + payload.length + " bytes is too large");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        
+        queueLock.lock();
+        try
+        {
+            if (closed || failure != null)
+            {
+                throw new IllegalStateException("Journal in " + directory.getAbsolutePath() + " is closed", failure);
+            }
+            int needed = pendingBytes + HEADER_BYTES + payload.length;
+            if (needed > pending.length)
+            {
+                pending = Arrays.copyOf(pending, Math.max(needed, pending.length * 2));
+            }
+            ByteBuffer frame = ByteBuffer.wrap(pending, pendingBytes, HEADER_BYTES + payload.length);
+            frame.putInt(payload.length);
+            frame.putInt((int) crc.getValue());
+            frame.put(payload);
+            pendingBytes = needed;
+            appendedSeq++;
+            workQueued.signal();
+            return appendedSeq;
+        }
+        finally
+        {
+            queueLock.unlock();
+        }
+    }
+    
+    /**
+     * Writer thread: write each batch of queued records, then sync once for the whole batch
+     */
+    private void writeBatches()
+    {
+        byte[] spare = new byte[pending.length];
+        while (true)
+        {
+            byte[] batch;
+            int batchBytes;
+            long through;
+            FileChannel target;
+            queueLock.lock();
+            try
+            {
+                while (pendingBytes == 0 && !closed)
+                {
+                    workQueued.awaitUninterruptibly();
+                }
+                if (pendingBytes == 0)
+                {
+                    return;
+                }
+                batch = pending;
+                batchBytes = pendingBytes;
+                through = appendedSeq;
+                target = channel;
+                pending = spare;
+                pendingBytes = 0;
+            }
+            finally
+            {
+                queueLock.unlock();
+            }
+            
+            IOException error = null;
+            try
+            {
+                ByteBuffer buffer = ByteBuffer.wrap(batch, 0, batchBytes);
+                while (buffer.hasRemaining())
+                {
+                    target.write(buffer);
+                }
+                target.force(false);
+            }
+            catch (IOException e)
+            {
+                error = e;
+            }
+            
+            queueLock.lock();
+            try
+            {
+                if (error != null)
+                {
+                    failure = error;
+                }
+                else
+                {
+                    durableSeq = through;
+                    segmentBytes += batchBytes;
+                }
+                batchSynced.signalAll();
+                if (error != null)
+                {
+                    return;
+                }
+            }
+            finally
+            {
+                queueLock.unlock();
+            }
+            spare = batch;
+        }
+    }
+    
+    /**
+     * Get the file of a journal segment
+     */
+    private File segmentFile(long number)
+    {
+        return new File(directory, FILE_PREFIX + number + SEGMENT_SUFFIX);
+    }
+    
+    /**
+     * Get the file of a snapshot
+     */
+    private File snapshotFile(long number)
+    {
+        return new File(directory, FILE_PREFIX + number + SNAPSHOT_SUFFIX);
+    }
+    
+    /**
+     * List the numbers of the segment or snapshot files in the directory
+     * @param suffix The file name suffix to look for
+     * @return The numbers found, in ascending order
+     */
+    private long[] listNumbers(String suffix)
+    {
+        String[] names = directory.list();
+        if (names == null)
+        {
+            return new long[0];
+        }
+        long[] numbers = new long[names.length];
+        int count = 0;
+        for (String name : names)
+        {
+            if (name.startsWith(FILE_PREFIX) && name.endsWith(suffix))
+            {
+                try
+                {
+                    numbers[count] = Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - suffix.length()));
+                    count++;
+                }
+                catch (NumberFormatException e)
+                {
+                    // Not one of ours
+                }
+            }
+        }
+        numbers = Arrays.copyOf(numbers, count);
+        Arrays.sort(numbers);
+        return numbers;
+    }
+    
+    /**
+     * Delete the segments and snapshots that the snapshot taken at a segment replaces
+     * @param base The segment the latest complete snapshot was taken at
+     */
+    private void deleteBefore(long base)
+    {
+        for (long number : listNumbers(SEGMENT_SUFFIX))
+        {
+            if (number < base)
+            {
+                segmentFile(number).delete();
+            }
+        }
+        for (long number : listNumbers(SNAPSHOT_SUFFIX))
+        {
+            if (number < base)
+            {
+                snapshotFile(number).delete();
+            }
+        }
+    }
+    
+    /**
+     * Reads records back from snapshot and segment files and passes them to a handler.
+     * Customers and rooms are tracked across files so replayed bookings share their objects.
+     */
+    private static class Replay
+    {
+        final Handler handler;
+        final IntHashMap<Customer> customers = new IntHashMap<Customer>();
+        final IntHashMap<Room> rooms = new IntHashMap<Room>();
+        int count;
+        
+        Replay(Handler handler)
+        {
+            this.handler = handler;
+        }
+        
+        /**
+         * Replay every intact record in a file
+         * @param mayBeTorn true for the last segment, whose tail may have been cut short by a crash
+         * @return The length of the intact part of the file
+         * @throws IOException if the file cannot be read, or is damaged and not allowed to be
+         */
+        long file(File file, boolean mayBeTorn) throws IOException
+        {
+            long offset = 0;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536)))
+            {
+                CRC32 crc = new CRC32();
+                while (true)
+                {
+                    int length;
+                    int checksum;
+                    byte[] payload;
+                    try
+                    {
+                        length = in.readInt();
+                        checksum = in.readInt();
+                        if (length <= 0 || length > MAX_RECORD_BYTES)
+                        {
+                            break;
+                        }
+                        payload = new byte[length];
+                        in.readFully(payload);
+                    }
+                    catch (EOFException e)
+                    {
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(payload, 0, length);
+                    if ((int) crc.getValue() != checksum)
+                    {
+                        break;
+                    }
+                    apply(new DataInputStream(new ByteArrayInputStream(payload)));
+                    offset += HEADER_BYTES + length;
+                    count++;
+                }
+            }
+            if (!mayBeTorn && offset < file.length())
+            {
+                throw new IOException("Damaged journal file " + file.getAbsolutePath() + " at offset " + offset);
+            }
+            return offset;
+        }
+        
+        /**
+         * Read a booking's fields, sharing the customer and room objects already read
+         */
+        Booking readBooking(DataInputStream in) throws IOException
+        {
+            int bookingID = in.readInt();
+            Customer customer = readCustomer(in, customers);
+            Room bookedRoom = readRoom(in, rooms, false);
+            Booking booking = new Booking(bookingID, customer, bookedRoom, in.readInt(), in.readInt());
+            booking.setTotalCents(in.readLong());
+            return booking;
+        }
+        
+        /**
+         * Decode one record and pass it to the handler
+         */
+        void apply(DataInputStream in) throws IOException
+        {
+            byte type = in.readByte();
+            switch (type)
+            {
+                case ROOM_ADDED:
+                    handler.roomAdded(readRoom(in, rooms, true));
+                    break;
+                case ROOM_REMOVED:
+                    handler.roomRemoved(in.readInt());
+                    break;
+                case ROOM_CHANGED:
+                    handler.roomChanged(in.readInt(), in.readLong(), in.readBoolean());
+                    break;
+                case CUSTOMER_ADDED:
+                    handler.customerAdded(readCustomer(in, customers));
+                    break;
+                case BOOKING_ADDED:
+                    handler.bookingAdded(readBooking(in));
+                    break;
+                case BOOKINGS_ADDED:
+                    // Decode the whole group before applying any of it
+                    Booking[] group = new Booking[in.readInt()];
+                    for (int i = 0; i < group.length; i++)
+                    {
+                        group[i] = readBooking(in);
+                    }
+                    for (Booking booking : group)
+                    {
+                        handler.bookingAdded(booking);
+                    }
+                    break;
+                case BOOKING_CANCELLED:
+                    handler.bookingCancelled(in.readInt());
+                    break;
+                case RATE_SET:
+                case RATE_CLEARED:
+                    String roomType = readString(in);
+                    int fromDay = in.readInt();
+                    int toDay = in.readInt();
+                    int weekdays = in.readByte();
+                    long centsPerNight = in.readLong();
+                    if (type == RATE_SET)
+                    {
+                        handler.rateSet(roomType, fromDay, toDay, weekdays, centsPerNight);
+                    }
+                    else
+                    {
+                        handler.rateCleared(roomType, fromDay, toDay, weekdays);
+                    }
+                    break;
+                default:
+                    throw new IOException("Unknown journal record type " + type);
+            }
+        }
+    }
+    
+    /**
+     * Write a booking's fields, including its customer and room, with prices in cents
+     */
+    private static void writeBooking(DataOutputStream out, Booking booking) throws IOException
+    {
+        out.writeInt(booking.getBookingID());
+        writeCustomer(out, booking.getCustomer());
+        writeRoom(out, booking.getRoom());
+        out.writeInt(booking.getCheckInDay());
+        out.writeInt(booking.getCheckOutDay());
+        out.writeLong(booking.getTotalCents());
+    }
+    
+    /**
+     * Write a rate change's fields
+     */
+    private static void writeRate(DataOutputStream out, String roomType, int fromDay, int toDay, int weekdays,
+                                  long centsPerNight) throws IOException
+    {
+        writeString(out, roomType);
+        out.writeInt(fromDay);
+        out.writeInt(toDay);
+        out.writeByte(weekdays);
+        out.writeLong(centsPerNight);
+    }
+    
+    /**
+     * Write a room's fields, with the price in cents
+     */
+    private static void writeRoom(DataOutputStream out, Room room) throws IOException
+    {
+        out.writeInt(room.getRoomNumber());
+        writeString(out, room.getRoomType());
+        out.writeLong(room.getPriceCentsPerNight());
+        out.writeBoolean(room.isAvailable());
+    }
+    
+    /**
+     * Read a room's fields. A booking reuses the room last read for its number (unless the type
+     * differs), so replayed bookings share the catalog's Room object.
+     * @param added true for a room-added record, which always starts a new Room object
+     */
+    private static Room readRoom(DataInputStream in, IntHashMap<Room> rooms, boolean added) throws IOException
+    {
+        int roomNumber = in.readInt();
+        String roomType = readString(in);
+        long priceCentsPerNight = in.readLong();
+        boolean available = in.readBoolean();
+        Room room = rooms.get(roomNumber);
+        if (added || room == null || !Objects.equals(room.getRoomType(), roomType))
+        {
+            room = new Room(roomNumber, roomType, 0);
+            room.setPriceCentsPerNight(priceCentsPerNight);
+            room.setAvailable(available);
+            rooms.put(roomNumber, room);
+        }
+        return room;
+    }
+    
+    /**
+     * Write a customer's fields
+     */
+    private static void writeCustomer(DataOutputStream out, Customer customer) throws IOException
+    {
+        out.writeInt(customer.getCustomerID());
+        writeString(out, customer.getName());
+        writeString(out, customer.getEmail());
+        writeString(out, customer.getPhoneNumber());
+    }
+    
+    /**
+     * Read a customer's fields, reusing the customer already read for that ID so bookings share it
+     */
+    private static Customer readCustomer(DataInputStream in, IntHashMap<Customer> customers) throws IOException
+    {
+        int customerID = in.readInt();
+        String name = readString(in);
+        String email = readString(in);
+        String phoneNumber = readString(in);
+        Customer customer = customers.get(customerID);
+        if (customer == null)
+        {
+            customer = new Customer(customerID, name, email, phoneNumber);
+            customers.put(customerID, customer);
+        }
+        else
+        {
+            // Later records carry the customer's latest details
+            customer.setName(name);
+            customer.setEmail(email);
+            customer.setPhoneNumber(phoneNumber);
+        }
+        return customer;
+    }
+    
+    /**
+     * Write a string that may be null
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        out.writeBoolean(value != null);
+        if (value != null)
+        {
+            out.writeUTF(value);
+        }
+    }
+    
+    /**
+     * Read a string written by writeString
+     */
+    private static String readString(DataInputStream in) throws IOException
+    {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
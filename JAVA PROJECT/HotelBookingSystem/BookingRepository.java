@@ -0,0 +1,42 @@
+import java.util.List;
+
+/**
+ * Storage for the hotel's bookings.
+ * Changes are made by one thread at a time (HotelManager holds its ledger lock);
+ * snapshots may be taken and read from any thread.
+ */
+public interface BookingRepository
+{
+    /**
+     * Get the number of live (not cancelled) bookings
+     * @return The booking count
+     */
+    int size();
+    
+    /**
+     * Add a booking
+     * @param booking The booking to add
+     * @return true if added, false if a booking with the same ID is already stored
+     */
+    boolean add(Booking booking);
+    
+    /**
+     * Find a booking by ID
+     * @param bookingID The booking ID to look up
+     * @return The Booking object if found, null otherwise
+     */
+    Booking find(int bookingID);
+    
+    /**
+     * Remove (cancel) a booking by ID
+     * @param bookingID The booking ID to remove
+     * @return The removed Booking object, or null if not found
+     */
+    Booking remove(int bookingID);
+    
+    /**
+     * Get the live bookings as they are now
+     * @return Immutable list of the bookings in the order they were added, unaffected by later changes
+     */
+    List<Booking> snapshot();
+}
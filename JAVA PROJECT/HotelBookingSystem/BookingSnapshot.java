@@ -0,0 +1,134 @@
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * An immutable view of a repository's live bookings at one version, in the order they were added.
+ * The repository keeps bookings in numbered slots that never change once written, and cancelling
+ * a booking adds its slot to a TombstoneSet instead of moving later bookings. A snapshot is just
+ * the number of slots used, the tombstones and the version when it was taken, so taking one is O(1),
+ * reading a booking by index is O(1) without tombstones and O(log n) with them, and nothing is ever
+ * rebuilt per snapshot. Two snapshots of the same slot layout can be compared at O(log n) per change,
+ * so a screen can apply just the rows removed and added between them.
+ */
+public abstract class BookingSnapshot extends AbstractList<Booking> implements RandomAccess
+{
+    private final Object layout;
+    private final int used;
+    private final TombstoneSet tombstones;
+    private final long version;
+    
+    /**
+     * Constructor for BookingSnapshot class.
+     * @param layout Identifies the slot numbering; it changes when slots are renumbered, for example by compaction
+     * @param used The number of slots used
+     * @param tombstones The slots of the cancelled bookings, all below used
+     * @param version The repository version
+     */
+    protected BookingSnapshot(Object layout, int used, TombstoneSet tombstones, long version)
+    {
+        this.layout = layout;
+        this.used = used;
+        this.tombstones = tombstones;
+        this.version = version;
+    }
+    
+    /**
+     * Get the booking in a slot
+     * @param slot A live slot below the used count
+     * @return The Booking object
+     */
+    protected abstract Booking bookingAt(int slot);
+    
+    /**
+     * Get the repository version this snapshot was taken at
+     * @return The version number, which grows with every change to the repository
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+    
+    /**
+     * Find the rows of this snapshot whose bookings a later snapshot of the same repository no longer holds.
+     * The other rows keep their order in the later snapshot, and any rows it adds come after all of them.
+     * @param later A snapshot taken at the same or a later version
+     * @return The removed rows in ascending order, or null if the snapshots cannot be compared
+     *         (another repository, renumbered slots, or an older snapshot)
+     */
+    public int[] rowsRemovedIn(BookingSnapshot later)
+    {
+        if (later.layout != layout || later.version < version || later.used < used)
+        {
+            return null;
+        }
+        int[] rows = later.tombstones.addedSince(tombstones, used);
+        for (int i = 0; i < rows.length; i++)
+        {
+            rows[i] -= tombstones.countBelow(rows[i]);
+        }
+        return rows;
+    }
+    
+    @Override
+    public int size()
+    {
+        return used - tombstones.size();
+    }
+    
+    @Override
+    public Booking get(int index)
+    {
+        if (index < 0 || index >= size())
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return bookingAt(tombstones.size() == 0 ? index : tombstones.selectLive(index));
+    }
+    
+    @Override
+    public Iterator<Booking> iterator()
+    {
+        return new Iterator<Booking>()
+        {
+            // Tombstones of the 64 slots that share a leaf with the slot being checked
+            private long leaf;
+            private int next = advance(0);
+            
+            private int advance(int from)
+            {
+                for (; from < used; from++)
+                {
+                    if ((from & 63) == 0)
+                    {
+                        leaf = tombstones.leafBits(from);
+                    }
+                    if ((leaf >>> (from & 63) & 1) == 0)
+                    {
+                        break;
+                    }
+                }
+                return from;
+            }
+            
+            @Override
+            public boolean hasNext()
+            {
+                return next < used;
+            }
+            
+            @Override
+            public Booking next()
+            {
+                if (next >= used)
+                {
+                    throw new NoSuchElementException();
+                }
+                Booking booking = bookingAt(next);
+                next = advance(next + 1);
+                return booking;
+            }
+        };
+    }
+}
@@ -0,0 +1,333 @@
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Storage for bookings with constant-time lookup and cancellation by booking ID.
+ * Bookings are kept in insertion order in an array of slots and indexed by ID in an
+ * int-to-int hash map from booking ID to slot. Cancelling a booking adds its slot to a
+ * TombstoneSet instead of shifting later bookings down. Once tombstones make up half the slots
+ * they are compacted away in the background: a compactor thread copies the live bookings into a
+ * new array and catches up with the bookings added and cancelled meanwhile, all without holding
+ * the store, and takes the store's lock only to apply the last few changes and switch arrays.
+ * Cancelling a booking therefore never copies the ledger or waits for a copy.
+ *
+ * Readers get versioned snapshots. Slots below the used count are never overwritten (compaction
+ * and growth copy into a new array), and tombstone sets are immutable, so a snapshot is just the
+ * slot array, the used count, the tombstone set and the version at the time it was taken: taking
+ * one is O(1), it never changes afterwards, and reading it by index costs O(log n) at most, with
+ * nothing rebuilt per snapshot.
+ * Methods are synchronized so the compactor can switch arrays between changes;
+ * snapshots may be taken and read from any thread without locking.
+ */
+public class BookingStore implements BookingRepository, Iterable<Booking>
+{
+    private static final int MIN_COMPACT_TOMBSTONES = 64;
+    
+    // Changes a compaction may still have to apply when it takes the store's lock to finish
+    private static final int CATCH_UP_CHANGES = 1024;
+    
+    // Compacts the stores in the background, one at a time
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(task ->
+    {
+        Thread thread = new Thread(task, "booking-store-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private Booking[] slots;
+    private int used;
+    private TombstoneSet tombstones;
+    private long version;
+    private IntIntHashMap slotByID;
+    // Replaced whenever compaction renumbers the slots
+    private Object layout;
+    private volatile Snapshot current;
+    private boolean compacting;
+    
+    /**
+     * Constructor for BookingStore class.
+     * Creates an empty store.
+     */
+    public BookingStore()
+    {
+        slots = new Booking[16];
+        tombstones = TombstoneSet.EMPTY;
+        slotByID = new IntIntHashMap();
+        layout = new Object();
+        publish();
+    }
+    
+    /**
+     * Get the number of live (not cancelled) bookings
+     * @return The booking count
+     */
+    public synchronized int size()
+    {
+        return used - tombstones.size();
+    }
+    
+    /**
+     * Add a booking to the end of the store
+     * @param booking The booking to add
+     * @return true if added, false if a booking with the same ID is already stored
+     */
+    public synchronized boolean add(Booking booking)
+    {
+        if (slotByID.get(booking.getBookingID()) != IntIntHashMap.MISSING)
+        {
+            return false;
+        }
+        if (used == slots.length)
+        {
+            Booking[] grown = new Booking[slots.length * 2];
+            System.arraycopy(slots, 0, grown, 0, used);
+            slots = grown;
+        }
+        slots[used] = booking;
+        slotByID.put(booking.getBookingID(), used);
+        used++;
+        version++;
+        publish();
+        return true;
+    }
+    
+    /**
+     * Find a booking by ID
+     * @param bookingID The booking ID to look up
+     * @return The Booking object if found, null otherwise
+     */
+    public synchronized Booking find(int bookingID)
+    {
+        int slot = slotByID.get(bookingID);
+        return slot == IntIntHashMap.MISSING ? null : slots[slot];
+    }
+    
+    /**
+     * Remove a booking by ID, leaving a tombstone in its slot
+     * @param bookingID The booking ID to remove
+     * @return The removed Booking object, or null if not found
+     */
+    public synchronized Booking remove(int bookingID)
+    {
+        int slot = slotByID.remove(bookingID);
+        if (slot == IntIntHashMap.MISSING)
+        {
+            return null;
+        }
+        Booking booking = slots[slot];
+        tombstones = tombstones.add(slot);
+        version++;
+        publish();
+        compactIfDue();
+        return booking;
+    }
+    
+    /**
+     * Get a snapshot of the live bookings in O(1).
+     * The snapshot is an immutable list that later changes to the store do not affect.
+     * @return The bookings live at the latest version, in the order they were added
+     */
+    public Snapshot snapshot()
+    {
+        return current;
+    }
+    
+    /**
+     * Start a background compaction if tombstones make up half the slots and none is running
+     */
+    private void compactIfDue()
+    {
+        if (!compacting && tombstones.size() >= MIN_COMPACT_TOMBSTONES && tombstones.size() > used / 2)
+        {
+            compacting = true;
+            final Compaction compaction = new Compaction(slots, used, tombstones);
+            COMPACTOR.execute(() -> compact(compaction));
+        }
+    }
+    
+    /**
+     * Close the gaps left by cancelled bookings, keeping the remaining order.
+     * Runs on the compactor thread. The bookings live when the compaction started are copied to a new
+     * array without holding the store, so existing snapshots keep the old array and changes go on; the
+     * changes made meanwhile are then caught up with, also without the store, until few enough are left
+     * to apply under its lock just before the new array is switched in.
+     */
+    private void compact(Compaction compaction)
+    {
+        try
+        {
+            compaction.copyLive();
+            while (true)
+            {
+                Booking[] latestSlots;
+                int latestUsed;
+                TombstoneSet latestTombstones;
+                synchronized (this)
+                {
+                    if (compaction.changesBehind(used, tombstones) <= CATCH_UP_CHANGES)
+                    {
+                        compaction.catchUp(slots, used, tombstones);
+                        slots = compaction.slots;
+                        used = compaction.target;
+                        slotByID = compaction.slotByID;
+                        tombstones = compaction.compactedTombstones;
+                        layout = new Object();
+                        publish();
+                        return;
+                    }
+                    latestSlots = slots;
+                    latestUsed = used;
+                    latestTombstones = tombstones;
+                }
+                compaction.catchUp(latestSlots, latestUsed, latestTombstones);
+            }
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                compacting = false;
+                compactIfDue();
+            }
+        }
+    }
+    
+    /**
+     * Make the current state visible to readers
+     */
+    private void publish()
+    {
+        current = new Snapshot(layout, slots, used, tombstones, version);
+    }
+    
+    /**
+     * Iterate over the live bookings in the order they were added
+     * @return An iterator over the latest snapshot
+     */
+    @Override
+    public Iterator<Booking> iterator()
+    {
+        return current.iterator();
+    }
+    
+    /**
+     * A compaction in progress: the store as it was when it started, the new array being filled,
+     * and how far the new array has caught up with the changes made since
+     */
+    private static final class Compaction
+    {
+        final Booking[] startSlots;
+        final int startUsed;
+        final TombstoneSet startTombstones;
+        final int startLive;
+        Booking[] slots;
+        IntIntHashMap slotByID;
+        int target;
+        TombstoneSet compactedTombstones = TombstoneSet.EMPTY;
+        int seenUsed;
+        TombstoneSet seenTombstones;
+        
+        Compaction(Booking[] slots, int used, TombstoneSet tombstones)
+        {
+            this.startSlots = slots;
+            this.startUsed = used;
+            this.startTombstones = tombstones;
+            this.startLive = used - tombstones.size();
+            this.seenUsed = used;
+            this.seenTombstones = tombstones;
+        }
+        
+        /**
+         * Copy the bookings that were live when the compaction started, reading the tombstones a leaf at a time
+         */
+        void copyLive()
+        {
+            slots = new Booking[Math.max(16, startLive * 2)];
+            slotByID = new IntIntHashMap(startLive);
+            long leaf = 0;
+            for (int slot = 0; slot < startUsed; slot++)
+            {
+                if ((slot & 63) == 0)
+                {
+                    leaf = startTombstones.leafBits(slot);
+                }
+                if ((leaf >>> (slot & 63) & 1) == 0)
+                {
+                    append(startSlots[slot]);
+                }
+            }
+        }
+        
+        /**
+         * Count the changes made to the store that the new array has not caught up with
+         */
+        int changesBehind(int used, TombstoneSet tombstones)
+        {
+            return used - seenUsed + tombstones.size() - seenTombstones.size();
+        }
+        
+        /**
+         * Apply the bookings added and cancelled since the last catch-up to the new array
+         * @param storeSlots The store's slots at a later point; slots below seenUsed are as they were
+         * @param used The store's used count at that point
+         * @param tombstones The store's tombstones at that point
+         */
+        void catchUp(Booking[] storeSlots, int used, TombstoneSet tombstones)
+        {
+            for (int slot = seenUsed; slot < used; slot++)
+            {
+                append(storeSlots[slot]);
+            }
+            for (int slot : tombstones.addedSince(seenTombstones, used))
+            {
+                // Slots keep their order: older ones close up over the gaps, newer ones follow the live copy
+                int compactedSlot = slot < startUsed ? slot - startTombstones.countBelow(slot)
+                                                     : startLive + slot - startUsed;
+                compactedTombstones = compactedTombstones.add(compactedSlot);
+                int bookingID = storeSlots[slot].getBookingID();
+                if (slotByID.get(bookingID) == compactedSlot)
+                {
+                    slotByID.remove(bookingID);
+                }
+            }
+            seenUsed = used;
+            seenTombstones = tombstones;
+        }
+        
+        /**
+         * Add a booking after the ones copied so far
+         */
+        void append(Booking booking)
+        {
+            if (target == slots.length)
+            {
+                Booking[] grown = new Booking[target * 2];
+                System.arraycopy(slots, 0, grown, 0, target);
+                slots = grown;
+            }
+            slotByID.put(booking.getBookingID(), target);
+            slots[target++] = booking;
+        }
+    }
+    
+    /**
+     * An immutable, versioned view of the bookings at one point in time
+     */
+    public static final class Snapshot extends BookingSnapshot
+    {
+        private final Booking[] slots;
+        
+        private Snapshot(Object layout, Booking[] slots, int used, TombstoneSet tombstones, long version)
+        {
+            super(layout, used, tombstones, version);
+            this.slots = slots;
+        }
+        
+        @Override
+        protected Booking bookingAt(int slot)
+        {
+            return slots[slot];
+        }
+    }
+}
@@ -0,0 +1,206 @@
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Index from normalized customer names to the IDs of their bookings.
+ * Names are trimmed, have runs of spaces collapsed and are lowercased, then kept in a
+ * sorted map so exact and prefix lookups cost O(log n) plus the size of the result.
+ */
+public class CustomerNameIndex
+{
+    private TreeMap<String, IdList> idsByName;
+    private IntHashMap<String> nameByBooking;
+    
+    /**
+     * Growable list of booking IDs in the order they were indexed
+     */
+    private static class IdList
+    {
+        int[] ids = new int[2];
+        int size;
+        
+        void add(int id)
+        {
+            if (size == ids.length)
+            {
+                ids = java.util.Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+        
+        void remove(int id)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                if (ids[i] == id)
+                {
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Callback for receiving booking IDs from a lookup
+     */
+    public interface IdVisitor
+    {
+        /**
+         * Receive one booking ID
+         * @param bookingID The ID of a matching booking
+         * @return true to keep receiving IDs, false to stop the lookup
+         */
+        boolean visit(int bookingID);
+    }
+    
+    /**
+     * Constructor for CustomerNameIndex class.
+     * Creates an empty index.
+     */
+    public CustomerNameIndex()
+    {
+        idsByName = new TreeMap<String, IdList>();
+        nameByBooking = new IntHashMap<String>();
+    }
+    
+    /**
+     * Normalize a name for indexing: trimmed, single-spaced and lowercase
+     * @param name The name to normalize
+     * @return The normalized form of the name
+     */
+    public static String normalize(String name)
+    {
+        if (name == null)
+        {
+            return "";
+        }
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Add a booking under the name of its customer
+     * @param customerName The customer's name
+     * @param bookingID The booking ID
+     */
+    public void add(String customerName, int bookingID)
+    {
+        String key = normalize(customerName);
+        IdList ids = idsByName.get(key);
+        if (ids == null)
+        {
+            ids = new IdList();
+            idsByName.put(key, ids);
+        }
+        ids.add(bookingID);
+        nameByBooking.put(bookingID, key);
+    }
+    
+    /**
+     * Remove a booking from the index.
+     * The booking is found under the name it was indexed with, even if the customer has since been renamed.
+     * @param bookingID The booking ID to remove
+     */
+    public void remove(int bookingID)
+    {
+        String key = nameByBooking.remove(bookingID);
+        if (key == null)
+        {
+            return;
+        }
+        IdList ids = idsByName.get(key);
+        if (ids != null)
+        {
+            ids.remove(bookingID);
+            if (ids.size == 0)
+            {
+                idsByName.remove(key);
+            }
+        }
+    }
+    
+    /**
+     * Visit the bookings whose customer name matches exactly, ignoring case and extra spaces
+     * @param name The name to look up
+     * @param visitor The callback to receive each booking ID
+     */
+    public void forEachExact(String name, IdVisitor visitor)
+    {
+        IdList ids = idsByName.get(normalize(name));
+        if (ids != null)
+        {
+            for (int i = 0; i < ids.size; i++)
+            {
+                if (!visitor.visit(ids.ids[i]))
+                {
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Visit the bookings whose customer name starts with a prefix, ignoring case and extra spaces.
+     * Names are visited in alphabetical order.
+     * @param prefix The start of the name to look up
+     * @param visitor The callback to receive each booking ID
+     */
+    public void forEachPrefix(String prefix, IdVisitor visitor)
+    {
+        String key = normalize(prefix);
+        SortedMap<String, IdList> matches = key.isEmpty() ? idsByName : idsByName.subMap(key, key + Character.MAX_VALUE);
+        for (Map.Entry<String, IdList> match : matches.entrySet())
+        {
+            IdList ids = match.getValue();
+            for (int i = 0; i < ids.size; i++)
+            {
+                if (!visitor.visit(ids.ids[i]))
+                {
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Visit the next part of the bookings whose customer name starts with a prefix, so a long lookup can
+     * be done in steps with other work in between. Whole names are visited in alphabetical order, starting
+     * after the last name of the previous step, until at least a given number of bookings have been visited.
+     * @param prefix The start of the name to look up
+     * @param after The name returned by the previous step, or null to start with the first matching name
+     * @param minBookings The number of bookings after which the step ends at the next name boundary
+     * @param visitor The callback to receive each booking ID
+     * @return The last name visited, to pass to the next step, or null if the lookup is finished or the visitor stopped it
+     */
+    public String forEachPrefixStep(String prefix, String after, int minBookings, IdVisitor visitor)
+    {
+        String key = normalize(prefix);
+        NavigableMap<String, IdList> matches = key.isEmpty() ? idsByName : idsByName.subMap(key, true, key + Character.MAX_VALUE, false);
+        if (after != null)
+        {
+            matches = matches.tailMap(after, false);
+        }
+        int visited = 0;
+        for (Map.Entry<String, IdList> match : matches.entrySet())
+        {
+            IdList ids = match.getValue();
+            for (int i = 0; i < ids.size; i++)
+            {
+                if (!visitor.visit(ids.ids[i]))
+                {
+                    return null;
+                }
+            }
+            visited += ids.size;
+            if (visited >= minBookings)
+            {
+                return match.getKey();
+            }
+        }
+        return null;
+    }
+}
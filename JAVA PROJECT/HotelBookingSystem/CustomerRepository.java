@@ -0,0 +1,33 @@
+import java.util.List;
+
+/**
+ * Storage for the hotel's customers.
+ * Implementations need not be thread-safe: HotelManager uses a repository only under its ledger lock.
+ */
+public interface CustomerRepository
+{
+    /**
+     * Get the number of customers
+     * @return The customer count
+     */
+    int size();
+    
+    /**
+     * Add a customer
+     * @param customer The customer to add
+     */
+    void add(Customer customer);
+    
+    /**
+     * Find a customer by customer ID
+     * @param customerID The customer ID to look up
+     * @return The Customer object if found, null otherwise
+     */
+    Customer find(int customerID);
+    
+    /**
+     * Get every customer, in the order they were added
+     * @return A copy of the customer list
+     */
+    List<Customer> getAllCustomers();
+}
@@ -0,0 +1,44 @@
+import java.io.File;
+
+/**
+ * Locates the directory where the hotel booking system keeps its data files.
+ * Defaults to "hotel-data" in the working directory; set the system property
+ * hotel.data.dir to use another location (for example a shared drive).
+ */
+public final class DataDirectory
+{
+    /** System property that overrides the data directory */
+    public static final String PROPERTY = "hotel.data.dir";
+    
+    /**
+     * Utility class, not meant to be instantiated
+     */
+    private DataDirectory()
+    {
+    }
+    
+    /**
+     * Get the data directory, creating it if it does not exist yet
+     * @return The data directory
+     * @throws IllegalStateException if the directory cannot be created
+     */
+    public static File get()
+    {
+        File directory = new File(System.getProperty(PROPERTY, "hotel-data"));
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IllegalStateException("Could not create data directory " + directory.getAbsolutePath());
+        }
+        return directory;
+    }
+    
+    /**
+     * Get a file inside the data directory
+     * @param name The file name
+     * @return The file (which may not exist yet)
+     */
+    public static File file(String name)
+    {
+        return new File(get(), name);
+    }
+}
@@ -0,0 +1,177 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only table model over a list of bookings, such as a booking snapshot or a search result.
+ * Rows are not copied: a cell is read from the list by index and formatted only when the table
+ * asks for it, which it does just for the rows on screen. Showing the whole ledger therefore costs
+ * O(1) on the event dispatch thread and no memory beyond the snapshot itself, however many
+ * bookings there are. The list should be random-access and must not change while shown.
+ */
+public class BookingTableModel extends AbstractTableModel
+{
+    private static final String[] COLUMN_NAMES = {"Booking ID", "Customer Name", "Room Number", "Room Type", "Check-In", "Check-Out", "Total Price"};
+    
+    private List<Booking> bookings;
+    
+    // The booking of the row last read, since the table reads a row's cells one after another
+    private int cachedRow = -1;
+    private Booking cachedBooking;
+    
+    /**
+     * Constructor for BookingTableModel class.
+     * Creates a model with no rows.
+     */
+    public BookingTableModel()
+    {
+        bookings = Collections.emptyList();
+    }
+    
+    /**
+     * Show a different list of bookings
+     * @param bookings The bookings to show, in display order
+     */
+    public void setBookings(List<Booking> bookings)
+    {
+        this.bookings = bookings;
+        cachedRow = -1;
+        cachedBooking = null;
+        fireTableDataChanged();
+    }
+    
+    /**
+     * Show a newer snapshot of the bookings shown, announcing only the rows cancelled and added since.
+     * The two snapshots are compared at O(log n) per change, so the table keeps its selection and
+     * scroll position and repaints only what moved; if they cannot be compared (for example after the
+     * store renumbered its slots) the whole table is refreshed instead.
+     * @param bookings The newer snapshot
+     */
+    public void updateBookings(List<Booking> bookings)
+    {
+        int[] removed = null;
+        if (this.bookings instanceof BookingSnapshot && bookings instanceof BookingSnapshot)
+        {
+            removed = ((BookingSnapshot) this.bookings).rowsRemovedIn((BookingSnapshot) bookings);
+        }
+        if (removed == null)
+        {
+            setBookings(bookings);
+            return;
+        }
+        int kept = this.bookings.size() - removed.length;
+        this.bookings = bookings;
+        cachedRow = -1;
+        cachedBooking = null;
+        // From the last row up, so the rows still to be announced keep their numbers
+        for (int i = removed.length - 1; i >= 0; i--)
+        {
+            fireTableRowsDeleted(removed[i], removed[i]);
+        }
+        if (bookings.size() > kept)
+        {
+            fireTableRowsInserted(kept, bookings.size() - 1);
+        }
+    }
+    
+    /**
+     * Add rows at the end of a list the model may change, such as a search result still being found
+     * @param more The bookings to add
+     */
+    public void addBookings(List<Booking> more)
+    {
+        if (more.isEmpty())
+        {
+            return;
+        }
+        int oldSize = bookings.size();
+        bookings.addAll(more);
+        fireTableRowsInserted(oldSize, bookings.size() - 1);
+    }
+    
+    /**
+     * Remove a cancelled booking's row from a list the model may change, such as a search result
+     * @param bookingID The ID of the cancelled booking
+     * @return The row the booking was shown in, or -1 if it was not shown
+     */
+    public int removeBooking(int bookingID)
+    {
+        for (int row = 0; row < bookings.size(); row++)
+        {
+            if (bookings.get(row).getBookingID() == bookingID)
+            {
+                bookings.remove(row);
+                cachedRow = -1;
+                cachedBooking = null;
+                fireTableRowsDeleted(row, row);
+                return row;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Get the booking shown in a row
+     * @param row The row index
+     * @return The Booking object
+     */
+    public Booking getBooking(int row)
+    {
+        if (row != cachedRow)
+        {
+            cachedBooking = bookings.get(row);
+            cachedRow = row;
+        }
+        return cachedBooking;
+    }
+    
+    @Override
+    public int getRowCount()
+    {
+        return bookings.size();
+    }
+    
+    @Override
+    public int getColumnCount()
+    {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column)
+    {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column)
+    {
+        Booking booking = getBooking(row);
+        switch (column)
+        {
+            case 0:
+                return booking.getBookingID();
+            case 1:
+                return booking.getCustomer().getName();
+            case 2:
+                return booking.getRoom().getRoomNumber();
+            case 3:
+                return booking.getRoom().getRoomType();
+            case 4:
+                return booking.getCheckInDate();
+            case 5:
+                return booking.getCheckOutDate();
+            default:
+                return formatPrice(booking.getTotalCents());
+        }
+    }
+    
+    /**
+     * Format a price in cents as dollars, like "$1234.50"
+     */
+    private static String formatPrice(long cents)
+    {
+        long fraction = cents % 100;
+        return new StringBuilder(16).append('$').append(cents / 100).append(fraction < 10 ? ".0" : ".").append(fraction).toString();
+    }
+}
@@ -0,0 +1,104 @@
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List model of the rooms shown as cards in RoomSelectionPanel.
+ * Rooms are indexed by room number, so a room is added or removed in O(1): removing one moves the
+ * last room into its place, as RoomCatalog does, and only those two positions are announced.
+ */
+public class RoomListModel extends AbstractListModel<Room>
+{
+    private ArrayList<Room> rooms;
+    private IntIntHashMap indexByNumber;
+    
+    /**
+     * Constructor for RoomListModel class.
+     * Creates a model with no rooms.
+     */
+    public RoomListModel()
+    {
+        rooms = new ArrayList<Room>();
+        indexByNumber = new IntIntHashMap();
+    }
+    
+    /**
+     * Show a different set of rooms
+     * @param newRooms The rooms to show, in display order
+     */
+    public void setRooms(List<Room> newRooms)
+    {
+        int oldSize = rooms.size();
+        rooms = new ArrayList<Room>(newRooms);
+        indexByNumber = new IntIntHashMap(rooms.size());
+        for (int i = 0; i < rooms.size(); i++)
+        {
+            indexByNumber.put(rooms.get(i).getRoomNumber(), i);
+        }
+        if (oldSize > 0)
+        {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        if (!rooms.isEmpty())
+        {
+            fireIntervalAdded(this, 0, rooms.size() - 1);
+        }
+    }
+    
+    /**
+     * Add a room at the end, or replace the room shown with the same number
+     * @param room The room to show
+     */
+    public void addRoom(Room room)
+    {
+        int index = indexByNumber.get(room.getRoomNumber());
+        if (index != IntIntHashMap.MISSING)
+        {
+            rooms.set(index, room);
+            fireContentsChanged(this, index, index);
+            return;
+        }
+        indexByNumber.put(room.getRoomNumber(), rooms.size());
+        rooms.add(room);
+        fireIntervalAdded(this, rooms.size() - 1, rooms.size() - 1);
+    }
+    
+    /**
+     * Stop showing a room
+     * @param roomNumber The room number
+     * @return true if the room was shown
+     */
+    public boolean removeRoom(int roomNumber)
+    {
+        int index = indexByNumber.remove(roomNumber);
+        if (index == IntIntHashMap.MISSING)
+        {
+            return false;
+        }
+        int last = rooms.size() - 1;
+        Room moved = rooms.remove(last);
+        if (index != last)
+        {
+            rooms.set(index, moved);
+            indexByNumber.put(moved.getRoomNumber(), index);
+        }
+        fireIntervalRemoved(this, last, last);
+        if (index != last)
+        {
+            fireContentsChanged(this, index, index);
+        }
+        return true;
+    }
+    
+    @Override
+    public int getSize()
+    {
+        return rooms.size();
+    }
+    
+    @Override
+    public Room getElementAt(int index)
+    {
+        return rooms.get(index);
+    }
+}
@@ -1,195 +1,317 @@
-import javax.swing.*;
-import java.awt.*;
-import java.util.ArrayList;
-
-/**
- * Panel for viewing available rooms in the hotel.
- * Extends JPanel and displays all rooms with their details.
- * Allows users to filter rooms by type and view availability status.
- */
-public class RoomSelectionPanel extends JPanel
-{
-    private HotelManager hotelManager;
-    private JPanel roomsDisplayPanel;
-    private JComboBox<String> roomTypeFilterCombo;
-    private JButton filterButton;
-    private JButton showAllButton;
-    
-    /**
-     * Constructor for RoomSelectionPanel.
-     * @param hotelManager Reference to the HotelManager instance
-     */
-    public RoomSelectionPanel(HotelManager hotelManager)
-    {
-        this.hotelManager = hotelManager;
-        setLayout(new BorderLayout(10, 10));
-        setBackground(new Color(236, 240, 241));
-        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        
-        createComponents();
-    }
-    
-    /**
-     * Create all GUI components for the room selection panel
-     */
-    private void createComponents()
-    {
-        // Title
-        JLabel titleLabel = new JLabel("Available Rooms");
-        titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
-        titleLabel.setForeground(new Color(44, 62, 80));
-        
-        // Filter Panel
-        JPanel filterPanel = createFilterPanel();
-        
-        JPanel topPanel = new JPanel(new BorderLayout(10, 0));
-        topPanel.setBackground(new Color(236, 240, 241));
-        topPanel.add(titleLabel, BorderLayout.WEST);
-        topPanel.add(filterPanel, BorderLayout.EAST);
-        add(topPanel, BorderLayout.NORTH);
-        
-        // Rooms Display Panel
-        roomsDisplayPanel = new JPanel();
-        roomsDisplayPanel.setLayout(new GridLayout(0, 3, 10, 10)); // 3 columns
-        roomsDisplayPanel.setBackground(new Color(236, 240, 241));
-        
-        JScrollPane scrollPane = new JScrollPane(roomsDisplayPanel);
-        scrollPane.setBackground(new Color(236, 240, 241));
-        add(scrollPane, BorderLayout.CENTER);
-    }
-    
-    /**
-     * Create the filter panel for room type selection
-     */
-    private JPanel createFilterPanel()
-    {
-        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
-        panel.setBackground(new Color(236, 240, 241));
-        
-        panel.add(new JLabel("Filter by Type:"));
-        
-        roomTypeFilterCombo = new JComboBox<>(new String[]{"All", "Single", "Double", "Suite"});
-        roomTypeFilterCombo.setBackground(Color.WHITE);
-        panel.add(roomTypeFilterCombo);
-        
-        filterButton = new JButton("Filter");
-        filterButton.setBackground(new Color(52, 152, 219));
-        filterButton.setForeground(Color.WHITE);
-        filterButton.setFont(new Font("Arial", Font.BOLD, 11));
-        filterButton.addActionListener(e -> filterRooms());
-        panel.add(filterButton);
-        
-        showAllButton = new JButton("Show All");
-        showAllButton.setBackground(new Color(39, 174, 96));
-        showAllButton.setForeground(Color.WHITE);
-        showAllButton.setFont(new Font("Arial", Font.BOLD, 11));
-        showAllButton.addActionListener(e -> displayRooms());
-        panel.add(showAllButton);
-        
-        return panel;
-    }
-    
-    /**
-     * Display all rooms in the system
-     */
-    public void displayRooms()
-    {
-        roomsDisplayPanel.removeAll();
-        ArrayList<Room> allRooms = hotelManager.getAllRooms();
-        
-        if (allRooms.isEmpty())
-        {
-            JLabel noRoomsLabel = new JLabel("No rooms available");
-            noRoomsLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-            roomsDisplayPanel.add(noRoomsLabel);
-        }
-        else
-        {
-            for (Room room : allRooms)
-            {
-                JPanel roomCard = createRoomCard(room);
-                roomsDisplayPanel.add(roomCard);
-            }
-        }
-        
-        roomsDisplayPanel.revalidate();
-        roomsDisplayPanel.repaint();
-    }
-    
-    /**
-     * Filter and display rooms by selected type
-     */
-    private void filterRooms()
-    {
-        String selectedType = (String) roomTypeFilterCombo.getSelectedItem();
-        
-        roomsDisplayPanel.removeAll();
-        
-        if ("All".equals(selectedType))
-        {
-            displayRooms();
-            return;
-        }
-        
-        ArrayList<Room> filteredRooms = hotelManager.searchAvailableRooms(selectedType);
-        
-        if (filteredRooms.isEmpty())
-        {
-            JLabel noRoomsLabel = new JLabel("No available " + selectedType + " rooms");
-            noRoomsLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-            roomsDisplayPanel.add(noRoomsLabel);
-        }
-        else
-        {
-            for (Room room : filteredRooms)
-            {
-                JPanel roomCard = createRoomCard(room);
-                roomsDisplayPanel.add(roomCard);
-            }
-        }
-        
-        roomsDisplayPanel.revalidate();
-        roomsDisplayPanel.repaint();
-    }
-    
-    /**
-     * Create a card panel for displaying room information
-     */
-    private JPanel createRoomCard(Room room)
-    {
-        JPanel card = new JPanel();
-        card.setLayout(new GridBagLayout());
-        card.setBackground(Color.WHITE);
-        card.setBorder(BorderFactory.createLineBorder(new Color(44, 62, 80), 2));
-        card.setPreferredSize(new Dimension(200, 150));
-        
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.insets = new Insets(5, 5, 5, 5);
-        gbc.fill = GridBagConstraints.HORIZONTAL;
-        gbc.gridwidth = GridBagConstraints.REMAINDER;
-        
-        // Room number
-        JLabel roomNumberLabel = new JLabel("Room " + room.getRoomNumber());
-        roomNumberLabel.setFont(new Font("Arial", Font.BOLD, 16));
-        roomNumberLabel.setForeground(new Color(44, 62, 80));
-        card.add(roomNumberLabel, gbc);
-        
-        // Room type
-        JLabel roomTypeLabel = new JLabel("Type: " + room.getRoomType());
-        roomTypeLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-        card.add(roomTypeLabel, gbc);
-        
-        // Price
-        JLabel priceLabel = new JLabel("Price: $" + String.format("%.2f", room.getPricePerNight()) + "/night");
-        priceLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-        card.add(priceLabel, gbc);
-        
-        // Availability status
-        JLabel availabilityLabel = new JLabel("Status: " + (room.isAvailable() ? "Available" : "Unavailable"));
-        availabilityLabel.setFont(new Font("Arial", Font.BOLD, 12));
-        availabilityLabel.setForeground(room.isAvailable() ? new Color(39, 174, 96) : new Color(231, 76, 60)); // Green or Red
-        card.add(availabilityLabel, gbc);
-        
-        return card;
-    }
-}
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Panel for viewing available rooms in the hotel.
+ * Extends JPanel and displays all rooms with their details.
+ * Allows users to filter rooms by type and view availability status.
+ * 
+ * The cards are cells of a JList laid out in wrapping rows with a fixed cell size, painted by one
+ * shared card renderer. Only the cards in the visible part of the scroll pane are ever painted and
+ * no component exists per room, so showing or filtering thousands of rooms costs time proportional
+ * to the screen rather than the inventory. Rooms added or removed elsewhere are applied as they happen,
+ * one card at a time.
+ */
+public class RoomSelectionPanel extends JPanel
+{
+    private HotelManager hotelManager;
+    private JList<Room> roomList;
+    private RoomListModel roomListModel;
+    private JScrollPane scrollPane;
+    private JComboBox<String> roomTypeFilterCombo;
+    private JButton filterButton;
+    private JButton showAllButton;
+    
+    // Whether rooms have been displayed, the room type shown (null for all types), and what to show when no room matches
+    private boolean displayed;
+    private String shownType;
+    private JLabel noRoomsLabel;
+    
+    // Size of one room card, and the gap around it
+    private static final int CARD_WIDTH = 200;
+    private static final int CARD_HEIGHT = 150;
+    private static final int CARD_GAP = 5;
+    
+    /**
+     * Constructor for RoomSelectionPanel.
+     * @param hotelManager Reference to the HotelManager instance
+     */
+    public RoomSelectionPanel(HotelManager hotelManager)
+    {
+        this.hotelManager = hotelManager;
+        setLayout(new BorderLayout(10, 10));
+        setBackground(new Color(236, 240, 241));
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        createComponents();
+        hotelManager.addChangeListener(new HotelChangeListener()
+        {
+            @Override
+            public void roomsAdded(List<Room> added)
+            {
+                SwingUtilities.invokeLater(() -> applyRoomsAdded(added));
+            }
+            
+            @Override
+            public void roomRemoved(Room room)
+            {
+                SwingUtilities.invokeLater(() -> applyRoomRemoved(room));
+            }
+            
+            @Override
+            public void roomChanged(Room room)
+            {
+                SwingUtilities.invokeLater(() -> applyRoomChanged(room));
+            }
+        });
+    }
+    
+    /**
+     * Create all GUI components for the room selection panel
+     */
+    private void createComponents()
+    {
+        // Title
+        JLabel titleLabel = new JLabel("Available Rooms");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        titleLabel.setForeground(new Color(44, 62, 80));
+        
+        // Filter Panel
+        JPanel filterPanel = createFilterPanel();
+        
+        JPanel topPanel = new JPanel(new BorderLayout(10, 0));
+        topPanel.setBackground(new Color(236, 240, 241));
+        topPanel.add(titleLabel, BorderLayout.WEST);
+        topPanel.add(filterPanel, BorderLayout.EAST);
+        add(topPanel, BorderLayout.NORTH);
+        
+        // Rooms Display: a wrapping list of fixed-size cards, so layout never measures each room
+        roomListModel = new RoomListModel();
+        roomList = new JList<>(roomListModel);
+        roomList.setLayoutOrientation(JList.HORIZONTAL_WRAP);
+        roomList.setVisibleRowCount(-1); // As many cards per row as fit the width
+        roomList.setFixedCellWidth(CARD_WIDTH + 2 * CARD_GAP);
+        roomList.setFixedCellHeight(CARD_HEIGHT + 2 * CARD_GAP);
+        roomList.setCellRenderer(new RoomCardRenderer());
+        roomList.setBackground(new Color(236, 240, 241));
+        
+        noRoomsLabel = new JLabel();
+        noRoomsLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        noRoomsLabel.setVerticalAlignment(SwingConstants.TOP);
+        
+        scrollPane = new JScrollPane(roomList);
+        scrollPane.setBackground(new Color(236, 240, 241));
+        scrollPane.getVerticalScrollBar().setUnitIncrement(CARD_HEIGHT / 5);
+        add(scrollPane, BorderLayout.CENTER);
+    }
+    
+    /**
+     * Create the filter panel for room type selection
+     */
+    private JPanel createFilterPanel()
+    {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        panel.setBackground(new Color(236, 240, 241));
+        
+        panel.add(new JLabel("Filter by Type:"));
+        
+        roomTypeFilterCombo = new JComboBox<>(new String[]{"All", "Single", "Double", "Suite"});
+        roomTypeFilterCombo.setBackground(Color.WHITE);
+        panel.add(roomTypeFilterCombo);
+        
+        filterButton = new JButton("Filter");
+        filterButton.setBackground(new Color(52, 152, 219));
+        filterButton.setForeground(Color.WHITE);
+        filterButton.setFont(new Font("Arial", Font.BOLD, 11));
+        filterButton.addActionListener(e -> filterRooms());
+        panel.add(filterButton);
+        
+        showAllButton = new JButton("Show All");
+        showAllButton.setBackground(new Color(39, 174, 96));
+        showAllButton.setForeground(Color.WHITE);
+        showAllButton.setFont(new Font("Arial", Font.BOLD, 11));
+        showAllButton.addActionListener(e -> displayRooms());
+        panel.add(showAllButton);
+        
+        return panel;
+    }
+    
+    /**
+     * Display all rooms in the system
+     */
+    public void displayRooms()
+    {
+        showRooms(null, hotelManager.getAllRooms(), "No rooms available");
+    }
+    
+    /**
+     * Filter and display rooms by selected type
+     */
+    private void filterRooms()
+    {
+        String selectedType = (String) roomTypeFilterCombo.getSelectedItem();
+        
+        if ("All".equals(selectedType))
+        {
+            displayRooms();
+            return;
+        }
+        
+        ArrayList<Room> filteredRooms = hotelManager.searchAvailableRooms(selectedType);
+        showRooms(selectedType, filteredRooms, "No available " + selectedType + " rooms");
+    }
+    
+    /**
+     * Replace the rooms shown
+     * @param roomType The room type the rooms were chosen by, or null for all rooms
+     * @param rooms The rooms to show
+     * @param emptyText The text to show when there are no rooms
+     */
+    private void showRooms(String roomType, List<Room> rooms, String emptyText)
+    {
+        displayed = true;
+        shownType = roomType;
+        noRoomsLabel.setText(emptyText);
+        roomListModel.setRooms(rooms);
+        showListOrEmptyText();
+    }
+    
+    /**
+     * Show the card list, or the empty text when no room is shown
+     */
+    private void showListOrEmptyText()
+    {
+        Component view = roomListModel.getSize() == 0 ? noRoomsLabel : roomList;
+        if (scrollPane.getViewport().getView() != view)
+        {
+            scrollPane.setViewportView(view);
+        }
+    }
+    
+    /**
+     * Show each added room that the current view shows
+     */
+    private void applyRoomsAdded(List<Room> added)
+    {
+        if (!displayed)
+        {
+            return; // Nothing is displayed yet
+        }
+        for (Room room : added)
+        {
+            // A filtered view shows available rooms of its type, as searchAvailableRooms does
+            if (shownType == null || (shownType.equals(room.getRoomType()) && room.isAvailable()))
+            {
+                roomListModel.addRoom(room);
+            }
+        }
+        showListOrEmptyText();
+    }
+    
+    /**
+     * Redraw a changed room's card, or show or hide it if the change moves it in or out of a filtered view
+     */
+    private void applyRoomChanged(Room room)
+    {
+        if (!displayed)
+        {
+            return; // Nothing is displayed yet
+        }
+        if (shownType == null || (shownType.equals(room.getRoomType()) && room.isAvailable()))
+        {
+            roomListModel.addRoom(room);
+        }
+        else
+        {
+            roomListModel.removeRoom(room.getRoomNumber());
+        }
+        showListOrEmptyText();
+    }
+    
+    /**
+     * Stop showing a removed room
+     */
+    private void applyRoomRemoved(Room room)
+    {
+        if (roomListModel.removeRoom(room.getRoomNumber()))
+        {
+            showListOrEmptyText();
+        }
+    }
+    
+    /**
+     * Paints every room card with one reused panel, filling in its labels for each room
+     */
+    private static class RoomCardRenderer extends JPanel implements ListCellRenderer<Room>
+    {
+        private final JPanel card;
+        private final JLabel roomNumberLabel;
+        private final JLabel roomTypeLabel;
+        private final JLabel priceLabel;
+        private final JLabel availabilityLabel;
+        private final javax.swing.border.Border cardBorder;
+        private final javax.swing.border.Border selectedCardBorder;
+        private final Color availableColor;
+        private final Color unavailableColor;
+        
+        RoomCardRenderer()
+        {
+            super(new BorderLayout());
+            setOpaque(false);
+            setBorder(BorderFactory.createEmptyBorder(CARD_GAP, CARD_GAP, CARD_GAP, CARD_GAP));
+            
+            cardBorder = BorderFactory.createLineBorder(new Color(44, 62, 80), 2);
+            selectedCardBorder = BorderFactory.createLineBorder(new Color(52, 152, 219), 2);
+            availableColor = new Color(39, 174, 96); // Green
+            unavailableColor = new Color(231, 76, 60); // Red
+            
+            card = new JPanel();
+            card.setLayout(new GridBagLayout());
+            card.setBackground(Color.WHITE);
+            card.setBorder(cardBorder);
+            add(card, BorderLayout.CENTER);
+            
+            GridBagConstraints gbc = new GridBagConstraints();
+            gbc.insets = new Insets(5, 5, 5, 5);
+            gbc.fill = GridBagConstraints.HORIZONTAL;
+            gbc.gridwidth = GridBagConstraints.REMAINDER;
+            
+            // Room number
+            roomNumberLabel = new JLabel();
+            roomNumberLabel.setFont(new Font("Arial", Font.BOLD, 16));
+            roomNumberLabel.setForeground(new Color(44, 62, 80));
+            card.add(roomNumberLabel, gbc);
+            
+            // Room type
+            roomTypeLabel = new JLabel();
+            roomTypeLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+            card.add(roomTypeLabel, gbc);
+            
+            // Price
+            priceLabel = new JLabel();
+            priceLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+            card.add(priceLabel, gbc);
+            
+            // Availability status
+            availabilityLabel = new JLabel();
+            availabilityLabel.setFont(new Font("Arial", Font.BOLD, 12));
+            card.add(availabilityLabel, gbc);
+        }
+        
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Room> list, Room room, int index,
+                                                      boolean isSelected, boolean cellHasFocus)
+        {
+            long cents = room.getPriceCentsPerNight();
+            roomNumberLabel.setText("Room " + room.getRoomNumber());
+            roomTypeLabel.setText("Type: " + room.getRoomType());
+            priceLabel.setText("Price: $" + cents / 100 + (cents % 100 < 10 ? ".0" : ".") + cents % 100 + "/night");
+            availabilityLabel.setText("Status: " + (room.isAvailable() ? "Available" : "Unavailable"));
+            availabilityLabel.setForeground(room.isAvailable() ? availableColor : unavailableColor);
+            card.setBorder(isSelected ? selectedCardBorder : cardBorder);
+            return this;
+        }
+    }
+}
@@ -1,250 +1,439 @@
-import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import java.awt.*;
-import java.awt.event.*;
-import java.util.ArrayList;
-
-/**
- * Panel for viewing all hotel bookings.
- * Extends JPanel and displays bookings in a JTable with search functionality.
- * Allows users to view booking details and search by customer name or booking ID.
- */
-public class ViewBookingsPanel extends JPanel
-{
-    private HotelManager hotelManager;
-    private JTable bookingsTable;
-    private DefaultTableModel tableModel;
-    private JTextField searchField;
-    private JComboBox<String> searchTypeCombo;
-    private JButton searchButton;
-    private JButton refreshButton;
-    
-    /**
-     * Constructor for ViewBookingsPanel.
-     * @param hotelManager Reference to the HotelManager instance
-     */
-    public ViewBookingsPanel(HotelManager hotelManager)
-    {
-        this.hotelManager = hotelManager;
-        setLayout(new BorderLayout(10, 10));
-        setBackground(new Color(236, 240, 241));
-        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        
-        createComponents();
-    }
-    
-    /**
-     * Create all GUI components for the view bookings panel
-     */
-    private void createComponents()
-    {
-        // Title
-        JLabel titleLabel = new JLabel("Current Bookings");
-        titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
-        titleLabel.setForeground(new Color(44, 62, 80));
-        add(titleLabel, BorderLayout.NORTH);
-        
-        // Search Panel
-        JPanel searchPanel = createSearchPanel();
-        add(searchPanel, BorderLayout.NORTH);
-        
-        // Table Panel
-        JPanel tablePanel = createTablePanel();
-        add(tablePanel, BorderLayout.CENTER);
-        
-        // Button Panel
-        JPanel buttonPanel = createButtonPanel();
-        add(buttonPanel, BorderLayout.SOUTH);
-    }
-    
-    /**
-     * Create the search panel with search fields
-     */
-    private JPanel createSearchPanel()
-    {
-        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
-        panel.setBackground(new Color(236, 240, 241));
-        panel.setBorder(BorderFactory.createTitledBorder("Search Bookings"));
-        
-        // Search type dropdown
-        searchTypeCombo = new JComboBox<>(new String[]{"Customer Name", "Booking ID"});
-        searchTypeCombo.setBackground(Color.WHITE);
-        panel.add(new JLabel("Search By:"));
-        panel.add(searchTypeCombo);
-        
-        // Search field
-        searchField = new JTextField(20);
-        searchField.setBackground(Color.WHITE);
-        panel.add(new JLabel("Search:"));
-        panel.add(searchField);
-        
-        // Search button
-        searchButton = new JButton("Search");
-        searchButton.setBackground(new Color(52, 152, 219)); // Bright blue
-        searchButton.setForeground(Color.WHITE);
-        searchButton.setFont(new Font("Arial", Font.BOLD, 11));
-        searchButton.addActionListener(e -> performSearch());
-        panel.add(searchButton);
-        
-        // Refresh button
-        refreshButton = new JButton("Show All");
-        refreshButton.setBackground(new Color(39, 174, 96)); // Green
-        refreshButton.setForeground(Color.WHITE);
-        refreshButton.setFont(new Font("Arial", Font.BOLD, 11));
-        refreshButton.addActionListener(e -> loadBookings());
-        panel.add(refreshButton);
-        
-        return panel;
-    }
-    
-    /**
-     * Create the table panel with JTable
-     */
-    private JPanel createTablePanel()
-    {
-        JPanel panel = new JPanel(new BorderLayout());
-        panel.setBackground(Color.WHITE);
-        
-        // Create table model
-        String[] columnNames = {"Booking ID", "Customer Name", "Room Number", "Room Type", "Check-In", "Check-Out", "Total Price"};
-        tableModel = new DefaultTableModel(columnNames, 0)
-        {
-            @Override
-            public boolean isCellEditable(int row, int column)
-            {
-                return false; // Make table read-only
-            }
-        };
-        
-        // Create table
-        bookingsTable = new JTable(tableModel);
-        bookingsTable.setFont(new Font("Arial", Font.PLAIN, 11));
-        bookingsTable.setRowHeight(25);
-        bookingsTable.getTableHeader().setBackground(new Color(44, 62, 80));
-        bookingsTable.getTableHeader().setForeground(Color.WHITE);
-        bookingsTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
-        
-        // Add scroll pane
-        JScrollPane scrollPane = new JScrollPane(bookingsTable);
-        scrollPane.setBackground(Color.WHITE);
-        panel.add(scrollPane, BorderLayout.CENTER);
-        
-        return panel;
-    }
-    
-    /**
-     * Create the button panel with action buttons
-     */
-    private JPanel createButtonPanel()
-    {
-        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
-        panel.setBackground(new Color(236, 240, 241));
-        
-        JButton infoButton = new JButton("Total Bookings: 0");
-        infoButton.setEnabled(false);
-        infoButton.setBackground(new Color(149, 165, 166));
-        infoButton.setForeground(Color.WHITE);
-        panel.add(infoButton);
-        
-        return panel;
-    }
-    
-    /**
-     * Load all bookings into the table
-     */
-    public void loadBookings()
-    {
-        tableModel.setRowCount(0); // Clear table
-        ArrayList<Booking> allBookings = hotelManager.getAllBookings();
-        
-        for (Booking booking : allBookings)
-        {
-            Object[] row = {
-                booking.getBookingID(),
-                booking.getCustomer().getName(),
-                booking.getRoom().getRoomNumber(),
-                booking.getRoom().getRoomType(),
-                booking.getCheckInDate(),
-                booking.getCheckOutDate(),
-                String.format("$%.2f", booking.getTotalPrice())
-            };
-            tableModel.addRow(row);
-        }
-        
-        updateBookingCount();
-    }
-    
-    /**
-     * Perform search based on selected criteria
-     */
-    private void performSearch()
-    {
-        String searchTerm = searchField.getText().trim();
-        if (searchTerm.isEmpty())
-        {
-            JOptionPane.showMessageDialog(this, "Please enter a search term!", "Validation Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        tableModel.setRowCount(0); // Clear table
-        String searchType = (String) searchTypeCombo.getSelectedItem();
-        ArrayList<Booking> searchResults = new ArrayList<>();
-        
-        if ("Customer Name".equals(searchType))
-        {
-            // Search is case-sensitive as per requirements
-            searchResults = hotelManager.searchBookingsByCustomerName(searchTerm);
-            if (searchResults.isEmpty())
-            {
-                JOptionPane.showMessageDialog(this, "No bookings found for customer: " + searchTerm, "Search Result", JOptionPane.INFORMATION_MESSAGE);
-            }
-        }
-        else if ("Booking ID".equals(searchType))
-        {
-            try
-            {
-                int bookingID = Integer.parseInt(searchTerm);
-                Booking booking = hotelManager.searchBookingByID(bookingID);
-                if (booking != null)
-                {
-                    searchResults.add(booking);
-                }
-                else
-                {
-                    JOptionPane.showMessageDialog(this, "Booking ID not found: " + bookingID, "Search Result", JOptionPane.INFORMATION_MESSAGE);
-                }
-            }
-            catch (NumberFormatException e)
-            {
-                JOptionPane.showMessageDialog(this, "Please enter a valid booking ID!", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-        }
-        
-        // Display search results
-        for (Booking booking : searchResults)
-        {
-            Object[] row = {
-                booking.getBookingID(),
-                booking.getCustomer().getName(),
-                booking.getRoom().getRoomNumber(),
-                booking.getRoom().getRoomType(),
-                booking.getCheckInDate(),
-                booking.getCheckOutDate(),
-                String.format("$%.2f", booking.getTotalPrice())
-            };
-            tableModel.addRow(row);
-        }
-        
-        updateBookingCount();
-    }
-    
-    /**
-     * Update the booking count display
-     */
-    private void updateBookingCount()
-    {
-        int rowCount = tableModel.getRowCount();
-        // This can be enhanced to show total count vs displayed count
-    }
-}
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Panel for viewing all hotel bookings.
+ * Extends JPanel and displays bookings in a JTable with search functionality.
+ * Allows users to view booking details and search by customer name or booking ID.
+ * The table reads its rows lazily from a booking snapshot, so showing the full ledger copies nothing.
+ * Bookings added or cancelled elsewhere are applied as they happen, one row change at a time.
+ * Searches run on a background worker and stream their matches into the table in chunks as they are
+ * found, with a progress bar; a new search, a change to the search term or "Show All" cancels the one
+ * running, so the window never waits for a search.
+ * Customer names are also searched as you type: a keystroke shows only the first few hundred matches
+ * from the name index, and when the term just grows and every match is already shown, those rows are
+ * narrowed instead, so a keystroke costs well under a frame whatever the size of the ledger.
+ * Pressing Search streams every match.
+ */
+public class ViewBookingsPanel extends JPanel
+{
+    private HotelManager hotelManager;
+    private JTable bookingsTable;
+    private BookingTableModel tableModel;
+    private JTextField searchField;
+    private JComboBox<String> searchTypeCombo;
+    private JButton searchButton;
+    private JButton refreshButton;
+    private JProgressBar searchProgress;
+    
+    // The search running in the background, if any
+    private SearchWorker searchWorker;
+    
+    // Most matches shown for a term typed into the search field
+    private static final int TYPE_AHEAD_LIMIT = 500;
+    
+    // The normalized term whose matches are shown as typed, null if none, and whether every match is shown
+    private String typeAheadTerm;
+    private boolean typeAheadComplete;
+    
+    // Whether the table shows the whole ledger (true) or a search result (false)
+    private boolean showingAll;
+    
+    /**
+     * Constructor for ViewBookingsPanel.
+     * @param hotelManager Reference to the HotelManager instance
+     */
+    public ViewBookingsPanel(HotelManager hotelManager)
+    {
+        this.hotelManager = hotelManager;
+        setLayout(new BorderLayout(10, 10));
+        setBackground(new Color(236, 240, 241));
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        createComponents();
+        hotelManager.addChangeListener(new HotelChangeListener()
+        {
+            @Override
+            public void bookingsAdded(List<Booking> added)
+            {
+                SwingUtilities.invokeLater(() -> applyBookingsAdded());
+            }
+            
+            @Override
+            public void bookingCancelled(Booking booking)
+            {
+                SwingUtilities.invokeLater(() -> applyBookingCancelled(booking));
+            }
+        });
+    }
+    
+    /**
+     * Create all GUI components for the view bookings panel
+     */
+    private void createComponents()
+    {
+        // Title
+        JLabel titleLabel = new JLabel("Current Bookings");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        titleLabel.setForeground(new Color(44, 62, 80));
+        add(titleLabel, BorderLayout.NORTH);
+        
+        // Search Panel
+        JPanel searchPanel = createSearchPanel();
+        add(searchPanel, BorderLayout.NORTH);
+        
+        // Table Panel
+        JPanel tablePanel = createTablePanel();
+        add(tablePanel, BorderLayout.CENTER);
+        
+        // Button Panel
+        JPanel buttonPanel = createButtonPanel();
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+    
+    /**
+     * Create the search panel with search fields
+     */
+    private JPanel createSearchPanel()
+    {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        panel.setBackground(new Color(236, 240, 241));
+        panel.setBorder(BorderFactory.createTitledBorder("Search Bookings"));
+        
+        // Search type dropdown
+        searchTypeCombo = new JComboBox<>(new String[]{"Customer Name", "Booking ID"});
+        searchTypeCombo.setBackground(Color.WHITE);
+        panel.add(new JLabel("Search By:"));
+        panel.add(searchTypeCombo);
+        
+        // Search field
+        searchField = new JTextField(20);
+        searchField.setBackground(Color.WHITE);
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener()
+        {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { searchAsYouType(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { searchAsYouType(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { searchAsYouType(); }
+        });
+        panel.add(new JLabel("Search:"));
+        panel.add(searchField);
+        
+        // Search button
+        searchButton = new JButton("Search");
+        searchButton.setBackground(new Color(52, 152, 219)); // Bright blue
+        searchButton.setForeground(Color.WHITE);
+        searchButton.setFont(new Font("Arial", Font.BOLD, 11));
+        searchButton.addActionListener(e -> performSearch());
+        panel.add(searchButton);
+        
+        // Refresh button
+        refreshButton = new JButton("Show All");
+        refreshButton.setBackground(new Color(39, 174, 96)); // Green
+        refreshButton.setForeground(Color.WHITE);
+        refreshButton.setFont(new Font("Arial", Font.BOLD, 11));
+        refreshButton.addActionListener(e -> loadBookings());
+        panel.add(refreshButton);
+        
+        // Search progress: runs while a search is finding matches, then shows how many it found
+        searchProgress = new JProgressBar();
+        searchProgress.setStringPainted(true);
+        searchProgress.setString("");
+        searchProgress.setPreferredSize(new Dimension(120, 20));
+        panel.add(searchProgress);
+        
+        return panel;
+    }
+    
+    /**
+     * Create the table panel with JTable
+     */
+    private JPanel createTablePanel()
+    {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(Color.WHITE);
+        
+        // Create table model (read-only, rows read from the bookings on demand)
+        tableModel = new BookingTableModel();
+        
+        // Create table
+        bookingsTable = new JTable(tableModel);
+        bookingsTable.setFont(new Font("Arial", Font.PLAIN, 11));
+        bookingsTable.setRowHeight(25);
+        bookingsTable.getTableHeader().setBackground(new Color(44, 62, 80));
+        bookingsTable.getTableHeader().setForeground(Color.WHITE);
+        bookingsTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        
+        // Add scroll pane
+        JScrollPane scrollPane = new JScrollPane(bookingsTable);
+        scrollPane.setBackground(Color.WHITE);
+        panel.add(scrollPane, BorderLayout.CENTER);
+        
+        return panel;
+    }
+    
+    /**
+     * Create the button panel with action buttons
+     */
+    private JPanel createButtonPanel()
+    {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
+        panel.setBackground(new Color(236, 240, 241));
+        
+        JButton infoButton = new JButton("Total Bookings: 0");
+        infoButton.setEnabled(false);
+        infoButton.setBackground(new Color(149, 165, 166));
+        infoButton.setForeground(Color.WHITE);
+        panel.add(infoButton);
+        
+        return panel;
+    }
+    
+    /**
+     * Load all bookings into the table.
+     * Shows an O(1) snapshot of the ledger; only the rows on screen are ever read.
+     */
+    public void loadBookings()
+    {
+        cancelSearch();
+        typeAheadTerm = null;
+        showingAll = true;
+        tableModel.setBookings(hotelManager.getAllBookings());
+        updateBookingCount();
+    }
+    
+    /**
+     * Show bookings added since the table was filled; only the new rows at the end are added.
+     * A search result is left as it is.
+     */
+    private void applyBookingsAdded()
+    {
+        if (showingAll)
+        {
+            tableModel.updateBookings(hotelManager.getAllBookings());
+            updateBookingCount();
+        }
+        else
+        {
+            // A new booking may match the typed term, so the next keystroke must ask the index again
+            typeAheadComplete = false;
+        }
+    }
+    
+    /**
+     * Take a cancelled booking off the table; only its row is removed, so the selection stays on the same booking
+     */
+    private void applyBookingCancelled(Booking booking)
+    {
+        if (showingAll)
+        {
+            tableModel.updateBookings(hotelManager.getAllBookings());
+        }
+        else
+        {
+            tableModel.removeBooking(booking.getBookingID());
+        }
+        updateBookingCount();
+    }
+    
+    /**
+     * Perform search based on selected criteria
+     */
+    private void performSearch()
+    {
+        String searchTerm = searchField.getText().trim();
+        if (searchTerm.isEmpty())
+        {
+            JOptionPane.showMessageDialog(this, "Please enter a search term!", "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        cancelSearch();
+        typeAheadTerm = null;
+        showingAll = false;
+        tableModel.setBookings(new ArrayList<Booking>()); // Clear table; matches are added as they are found
+        updateBookingCount();
+        String searchType = (String) searchTypeCombo.getSelectedItem();
+        int bookingID = 0;
+        
+        if ("Booking ID".equals(searchType))
+        {
+            try
+            {
+                bookingID = Integer.parseInt(searchTerm);
+            }
+            catch (NumberFormatException e)
+            {
+                JOptionPane.showMessageDialog(this, "Please enter a valid booking ID!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+        
+        searchProgress.setIndeterminate(true);
+        searchProgress.setString("Searching...");
+        searchWorker = new SearchWorker(searchType, searchTerm, bookingID);
+        searchWorker.execute();
+    }
+    
+    /**
+     * Show the bookings of customers whose name starts with the search term, each time the term changes.
+     * A search for the old term is of no use once it changes, so any running search is cancelled.
+     * Costs at most one bounded index lookup, so it runs on the event dispatch thread.
+     */
+    private void searchAsYouType()
+    {
+        cancelSearch();
+        if (!"Customer Name".equals(searchTypeCombo.getSelectedItem()))
+        {
+            return;
+        }
+        String term = CustomerNameIndex.normalize(searchField.getText());
+        if (term.isEmpty())
+        {
+            loadBookings();
+            return;
+        }
+        
+        ArrayList<Booking> matches;
+        if (typeAheadTerm != null && typeAheadComplete && term.startsWith(typeAheadTerm))
+        {
+            // Every match of the longer term is already shown, so narrow the rows without the index
+            matches = new ArrayList<Booking>();
+            for (int row = 0; row < tableModel.getRowCount(); row++)
+            {
+                Booking booking = tableModel.getBooking(row);
+                if (CustomerNameIndex.normalize(booking.getCustomer().getName()).startsWith(term))
+                {
+                    matches.add(booking);
+                }
+            }
+        }
+        else
+        {
+            matches = hotelManager.searchBookingsByCustomerNamePrefix(term, TYPE_AHEAD_LIMIT);
+        }
+        
+        showingAll = false;
+        typeAheadTerm = term;
+        typeAheadComplete = matches.size() < TYPE_AHEAD_LIMIT;
+        tableModel.setBookings(matches);
+        searchProgress.setIndeterminate(false);
+        searchProgress.setString(typeAheadComplete ? matches.size() + " found" : "First " + matches.size() + " shown");
+        updateBookingCount();
+    }
+    
+    /**
+     * Stop the search running in the background, if any; matches already shown stay in the table
+     */
+    private void cancelSearch()
+    {
+        if (searchWorker == null)
+        {
+            return;
+        }
+        // Cancelling on the event dispatch thread runs done() at once, so the worker must stop being current first
+        SearchWorker cancelled = searchWorker;
+        searchWorker = null;
+        cancelled.cancel(false);
+        searchProgress.setIndeterminate(false);
+        searchProgress.setString("Cancelled");
+    }
+    
+    /**
+     * Runs one search in the background and streams its matches to the table.
+     * The name search stops at the next booking once cancelled; a worker that is no longer
+     * the panel's current search changes nothing on screen.
+     */
+    private class SearchWorker extends SwingWorker<Void, Booking>
+    {
+        private final String searchType;
+        private final String searchTerm;
+        private final int bookingID;
+        
+        SearchWorker(String searchType, String searchTerm, int bookingID)
+        {
+            this.searchType = searchType;
+            this.searchTerm = searchTerm;
+            this.bookingID = bookingID;
+        }
+        
+        @Override
+        protected Void doInBackground()
+        {
+            if ("Customer Name".equals(searchType))
+            {
+                // Case-insensitive prefix search through the customer name index, a step at a time
+                hotelManager.forEachBookingByCustomerNamePrefix(searchTerm, booking ->
+                {
+                    if (isCancelled())
+                    {
+                        return false;
+                    }
+                    publish(booking);
+                    return true;
+                });
+            }
+            else
+            {
+                Booking booking = hotelManager.searchBookingByID(bookingID);
+                if (booking != null)
+                {
+                    publish(booking);
+                }
+            }
+            return null;
+        }
+        
+        @Override
+        protected void process(List<Booking> chunk)
+        {
+            if (searchWorker != this)
+            {
+                return;
+            }
+            tableModel.addBookings(chunk);
+            searchProgress.setString(tableModel.getRowCount() + " found");
+            updateBookingCount();
+        }
+        
+        @Override
+        protected void done()
+        {
+            if (searchWorker != this || isCancelled())
+            {
+                return;
+            }
+            searchWorker = null;
+            searchProgress.setIndeterminate(false);
+            try
+            {
+                get();
+            }
+            catch (Exception ex)
+            {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                searchProgress.setString("Failed");
+                JOptionPane.showMessageDialog(ViewBookingsPanel.this, "Search failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            searchProgress.setString(tableModel.getRowCount() + " found");
+            if (tableModel.getRowCount() == 0)
+            {
+                String message = "Customer Name".equals(searchType) ? "No bookings found for customer: " + searchTerm
+                                                                     : "Booking ID not found: " + bookingID;
+                JOptionPane.showMessageDialog(ViewBookingsPanel.this, message, "Search Result", JOptionPane.INFORMATION_MESSAGE);
+            }
+        }
+    }
+    
+    /**
+     * Update the booking count display
+     */
+    private void updateBookingCount()
+    {
+        int rowCount = tableModel.getRowCount();
+        // This can be enhanced to show total count vs displayed count
+    }
+}
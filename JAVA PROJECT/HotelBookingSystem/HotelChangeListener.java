@@ -0,0 +1,61 @@
+import java.util.List;
+
+/**
+ * Receives the changes made to a HotelManager, so screens can update just what changed.
+ * Register with HotelManager.addChangeListener. A method is called on the thread that made the
+ * change, once the change is durable and the manager's locks are released, so a listener may call
+ * back into the manager; listeners that update Swing components must hand the work to the event
+ * dispatch thread. Every method does nothing unless overridden.
+ */
+public interface HotelChangeListener
+{
+    /**
+     * Bookings were added, by one booking call or one bulk call
+     * @param added The bookings added, in the order they were stored
+     */
+    default void bookingsAdded(List<Booking> added)
+    {
+    }
+    
+    /**
+     * A booking was cancelled
+     * @param booking The cancelled booking
+     */
+    default void bookingCancelled(Booking booking)
+    {
+    }
+    
+    /**
+     * Rooms were added, by one call to addRoom or addRooms
+     * @param added The rooms added
+     */
+    default void roomsAdded(List<Room> added)
+    {
+    }
+    
+    /**
+     * A room was removed
+     * @param room The removed room
+     */
+    default void roomRemoved(Room room)
+    {
+    }
+    
+    /**
+     * A room's price or availability was changed
+     * @param room The room, as changed
+     */
+    default void roomChanged(Room room)
+    {
+    }
+    
+    /**
+     * The rate of a room type was set or cleared for a range of nights, so stays over it may price differently
+     * @param roomType The room type
+     * @param fromDay The first night as an epoch day
+     * @param toDay The day after the last night
+     */
+    default void ratesChanged(String roomType, int fromDay, int toDay)
+    {
+    }
+}
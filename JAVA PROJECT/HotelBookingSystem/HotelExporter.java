@@ -0,0 +1,535 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming exporter for the booking ledger and reports derived from it, as CSV or JSON Lines.
+ *
+ * Every export reads one snapshot of the bookings (taken in O(1), see HotelManager.getAllBookings),
+ * so the output is consistent even while bookings are being made, and walks it once without copying it.
+ * Each field is encoded straight into a direct buffer that is written to a FileChannel whenever it fills:
+ * no row objects, strings or intermediate lists are built per booking, so memory use stays flat however
+ * large the ledger is. Reports aggregate into arrays sized by the number of rooms or days, not bookings.
+ */
+public class HotelExporter
+{
+    // Size of the output buffer
+    private static final int BUFFER_SIZE = 1 << 18;
+    
+    private final HotelManager hotelManager;
+    
+    /**
+     * The output formats
+     */
+    public enum Format
+    {
+        /** Comma-separated values with a header line */
+        CSV,
+        /** One JSON object per line */
+        JSON_LINES;
+        
+        /**
+         * Pick the format from a file name: .jsonl or .json for JSON Lines, anything else for CSV
+         * @param file The file to export to
+         * @return The format
+         */
+        public static Format forFile(File file)
+        {
+            String name = file.getName().toLowerCase();
+            return name.endsWith(".jsonl") || name.endsWith(".json") ? JSON_LINES : CSV;
+        }
+    }
+    
+    /**
+     * Constructor for HotelExporter class.
+     * @param hotelManager The hotel manager to export from
+     */
+    public HotelExporter(HotelManager hotelManager)
+    {
+        this.hotelManager = hotelManager;
+    }
+    
+    /**
+     * Export every booking: ID, customer, room, dates, nights and total price
+     * @param file The file to write (replaced if it exists)
+     * @param format The output format
+     * @return The number of bookings written
+     * @throws IOException if the file cannot be written
+     */
+    public long exportBookings(File file, Format format) throws IOException
+    {
+        String[] columns = {"booking_id", "customer_id", "customer_name", "room_number", "room_type",
+                            "check_in", "check_out", "nights", "total_price"};
+        long count = 0;
+        try (RecordWriter out = new RecordWriter(file, format, columns))
+        {
+            for (Booking booking : hotelManager.getAllBookings())
+            {
+                Customer customer = booking.getCustomer();
+                Room room = booking.getRoom();
+                out.beginRecord();
+                out.number(booking.getBookingID());
+                out.number(customer.getCustomerID());
+                out.text(customer.getName());
+                out.number(room.getRoomNumber());
+                out.text(room.getRoomType());
+                out.date(booking.getCheckInDay());
+                out.date(booking.getCheckOutDay());
+                out.number(booking.getNights());
+                out.money(booking.getTotalCents());
+                out.endRecord();
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Export one line per room: bookings, booked nights and revenue over the whole ledger
+     * @param file The file to write (replaced if it exists)
+     * @param format The output format
+     * @return The number of rooms written
+     * @throws IOException if the file cannot be written
+     */
+    public long exportRoomReport(File file, Format format) throws IOException
+    {
+        List<Room> catalog = hotelManager.getAllRooms();
+        List<Booking> ledger = hotelManager.getAllBookings();
+        
+        // Rooms in catalog order, followed by any room that only appears in bookings
+        ArrayList<Room> rooms = new ArrayList<Room>(catalog);
+        IntIntHashMap indexOf = new IntIntHashMap(rooms.size());
+        for (int i = 0; i < rooms.size(); i++)
+        {
+            indexOf.put(rooms.get(i).getRoomNumber(), i);
+        }
+        int[] bookingCounts = new int[Math.max(16, rooms.size())];
+        long[] nights = new long[bookingCounts.length];
+        long[] revenue = new long[bookingCounts.length];
+        for (Booking booking : ledger)
+        {
+            Room room = booking.getRoom();
+            int index = indexOf.get(room.getRoomNumber());
+            if (index == IntIntHashMap.MISSING)
+            {
+                index = rooms.size();
+                rooms.add(room);
+                indexOf.put(room.getRoomNumber(), index);
+                if (index == bookingCounts.length)
+                {
+                    bookingCounts = Arrays.copyOf(bookingCounts, index * 2);
+                    nights = Arrays.copyOf(nights, index * 2);
+                    revenue = Arrays.copyOf(revenue, index * 2);
+                }
+            }
+            bookingCounts[index]++;
+            nights[index] += booking.getNights();
+            revenue[index] += booking.getTotalCents();
+        }
+        
+        String[] columns = {"room_number", "room_type", "bookings", "booked_nights", "revenue"};
+        try (RecordWriter out = new RecordWriter(file, format, columns))
+        {
+            for (int i = 0; i < rooms.size(); i++)
+            {
+                Room room = rooms.get(i);
+                out.beginRecord();
+                out.number(room.getRoomNumber());
+                out.text(room.getRoomType());
+                out.number(bookingCounts[i]);
+                out.number(nights[i]);
+                out.money(revenue[i]);
+                out.endRecord();
+            }
+        }
+        return rooms.size();
+    }
+    
+    /**
+     * Export one line per day from the first check-in to the last check-out: rooms occupied that night,
+     * check-ins, and revenue earned that night (each booking's total spread evenly over its nights)
+     * @param file The file to write (replaced if it exists)
+     * @param format The output format
+     * @return The number of days written
+     * @throws IOException if the file cannot be written
+     */
+    public long exportDailyReport(File file, Format format) throws IOException
+    {
+        List<Booking> ledger = hotelManager.getAllBookings();
+        int firstDay = Integer.MAX_VALUE;
+        int lastDay = Integer.MIN_VALUE;
+        for (Booking booking : ledger)
+        {
+            firstDay = Math.min(firstDay, booking.getCheckInDay());
+            lastDay = Math.max(lastDay, booking.getCheckOutDay());
+        }
+        int days = firstDay > lastDay ? 0 : lastDay - firstDay;
+        
+        // Difference arrays: a stay adds to every night from check-in up to check-out,
+        // recorded as a change at each end and summed up in one pass afterwards
+        int[] occupiedChange = new int[days + 1];
+        int[] checkIns = new int[days + 1];
+        long[] revenueChange = new long[days + 1];
+        for (Booking booking : ledger)
+        {
+            int start = booking.getCheckInDay() - firstDay;
+            int end = booking.getCheckOutDay() - firstDay;
+            int stayNights = end - start;
+            if (stayNights <= 0)
+            {
+                continue;
+            }
+            long cents = booking.getTotalCents();
+            long nightly = cents / stayNights;
+            long remainder = cents - nightly * stayNights;
+            occupiedChange[start]++;
+            occupiedChange[end]--;
+            checkIns[start]++;
+            // The first night also takes any cents that do not divide evenly
+            revenueChange[start] += nightly + remainder;
+            revenueChange[start + 1] -= remainder;
+            revenueChange[end] -= nightly;
+        }
+        
+        String[] columns = {"date", "rooms_occupied", "check_ins", "revenue"};
+        try (RecordWriter out = new RecordWriter(file, format, columns))
+        {
+            int occupied = 0;
+            long revenue = 0;
+            for (int i = 0; i < days; i++)
+            {
+                occupied += occupiedChange[i];
+                revenue += revenueChange[i];
+                out.beginRecord();
+                out.date(firstDay + i);
+                out.number(occupied);
+                out.number(checkIns[i]);
+                out.money(revenue);
+                out.endRecord();
+            }
+        }
+        return days;
+    }
+    
+    /**
+     * Writes records field by field into a direct buffer that is drained to a file channel when full
+     */
+    private static final class RecordWriter implements AutoCloseable
+    {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final boolean json;
+        private final byte[][] keys;
+        private final byte[] digits;
+        private final IntHashMap<byte[]> dates;
+        private int field;
+        
+        RecordWriter(File file, Format format, String[] columns) throws IOException
+        {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                       StandardOpenOption.TRUNCATE_EXISTING);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            json = format == Format.JSON_LINES;
+            digits = new byte[20];
+            // Bookings share few distinct dates, so each one is formatted once
+            dates = new IntHashMap<byte[]>();
+            keys = new byte[columns.length][];
+            for (int i = 0; i < columns.length; i++)
+            {
+                keys[i] = ((i == 0 ? "{\"" : ",\"") + columns[i] + "\":").getBytes(StandardCharsets.US_ASCII);
+            }
+            if (!json)
+            {
+                for (int i = 0; i < columns.length; i++)
+                {
+                    if (i > 0)
+                    {
+                        put((byte) ',');
+                    }
+                    put(columns[i].getBytes(StandardCharsets.US_ASCII));
+                }
+                put((byte) '\n');
+            }
+        }
+        
+        /**
+         * Start a new record
+         */
+        void beginRecord()
+        {
+            field = 0;
+        }
+        
+        /**
+         * Finish the current record
+         */
+        void endRecord() throws IOException
+        {
+            if (json)
+            {
+                put((byte) '}');
+            }
+            put((byte) '\n');
+        }
+        
+        /**
+         * Write a whole number field
+         */
+        void number(long value) throws IOException
+        {
+            separator();
+            writeDigits(value);
+        }
+        
+        /**
+         * Write an amount of cents as a decimal number with two places
+         */
+        void money(long cents) throws IOException
+        {
+            separator();
+            if (cents < 0)
+            {
+                put((byte) '-');
+                cents = -cents;
+            }
+            writeDigits(cents / 100);
+            put((byte) '.');
+            put((byte) ('0' + cents % 100 / 10));
+            put((byte) ('0' + cents % 10));
+        }
+        
+        /**
+         * Write an epoch day as a DD/MM/YYYY string field
+         */
+        void date(int epochDay) throws IOException
+        {
+            separator();
+            byte[] text = dates.get(epochDay);
+            if (text == null)
+            {
+                text = BookingDate.format(epochDay).getBytes(StandardCharsets.US_ASCII);
+                dates.put(epochDay, text);
+            }
+            if (json)
+            {
+                put((byte) '"');
+            }
+            put(text);
+            if (json)
+            {
+                put((byte) '"');
+            }
+        }
+        
+        /**
+         * Write a string field, quoted and escaped as the format requires
+         */
+        void text(String value) throws IOException
+        {
+            separator();
+            if (value == null)
+            {
+                if (json)
+                {
+                    put("null".getBytes(StandardCharsets.US_ASCII));
+                }
+                return;
+            }
+            boolean quote = json || needsCsvQuotes(value);
+            if (quote)
+            {
+                put((byte) '"');
+            }
+            for (int i = 0; i < value.length(); i++)
+            {
+                char c = value.charAt(i);
+                if (c == '"')
+                {
+                    // Doubled in CSV, backslash-escaped in JSON
+                    put(json ? (byte) '\\' : (byte) '"');
+                    put((byte) '"');
+                }
+                else if (json && (c == '\\' || c < 0x20))
+                {
+                    escapeJson(c);
+                }
+                else if (c < 0x80)
+                {
+                    put((byte) c);
+                }
+                else
+                {
+                    putUtf8(value, i);
+                    if (Character.isHighSurrogate(c))
+                    {
+                        i++;
+                    }
+                }
+            }
+            if (quote)
+            {
+                put((byte) '"');
+            }
+        }
+        
+        /**
+         * Write the separator or JSON key that comes before the next field
+         */
+        private void separator() throws IOException
+        {
+            if (json)
+            {
+                put(keys[field]);
+            }
+            else if (field > 0)
+            {
+                put((byte) ',');
+            }
+            field++;
+        }
+        
+        /**
+         * Check whether a CSV field has to be quoted
+         */
+        private static boolean needsCsvQuotes(String value)
+        {
+            for (int i = 0; i < value.length(); i++)
+            {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r')
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        /**
+         * Write a backslash or control character as a JSON escape
+         */
+        private void escapeJson(char c) throws IOException
+        {
+            put((byte) '\\');
+            switch (c)
+            {
+                case '\\':
+                    put((byte) '\\');
+                    break;
+                case '\n':
+                    put((byte) 'n');
+                    break;
+                case '\r':
+                    put((byte) 'r');
+                    break;
+                case '\t':
+                    put((byte) 't');
+                    break;
+                default:
+                    put((byte) 'u');
+                    put((byte) '0');
+                    put((byte) '0');
+                    put((byte) ("0123456789abcdef".charAt(c >> 4)));
+                    put((byte) ("0123456789abcdef".charAt(c & 0xF)));
+            }
+        }
+        
+        /**
+         * Write the UTF-8 encoding of the character (or surrogate pair) at an index
+         */
+        private void putUtf8(String value, int index) throws IOException
+        {
+            int codePoint = value.codePointAt(index);
+            if (codePoint < 0x800)
+            {
+                put((byte) (0xC0 | codePoint >> 6));
+            }
+            else
+            {
+                if (codePoint < 0x10000)
+                {
+                    put((byte) (0xE0 | codePoint >> 12));
+                }
+                else
+                {
+                    put((byte) (0xF0 | codePoint >> 18));
+                    put((byte) (0x80 | (codePoint >> 12) & 0x3F));
+                }
+                put((byte) (0x80 | (codePoint >> 6) & 0x3F));
+            }
+            put((byte) (0x80 | codePoint & 0x3F));
+        }
+        
+        /**
+         * Write the decimal digits of a number
+         */
+        private void writeDigits(long value) throws IOException
+        {
+            if (value < 0)
+            {
+                put((byte) '-');
+                value = -value;
+            }
+            int length = 0;
+            do
+            {
+                digits[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            while (value > 0);
+            while (length > 0)
+            {
+                put(digits[--length]);
+            }
+        }
+        
+        private void put(byte b) throws IOException
+        {
+            if (!buffer.hasRemaining())
+            {
+                drain();
+            }
+            buffer.put(b);
+        }
+        
+        private void put(byte[] bytes) throws IOException
+        {
+            if (buffer.remaining() < bytes.length)
+            {
+                drain();
+            }
+            buffer.put(bytes);
+        }
+        
+        /**
+         * Write out the buffered bytes
+         */
+        private void drain() throws IOException
+        {
+            buffer.flip();
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                drain();
+            }
+            finally
+            {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,511 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bulk importer for rooms, customers and bookings from a CSV file.
+ * Each line is one record, with the record type in the first field:
+ * <pre>
+ * room,&lt;room number&gt;,&lt;room type&gt;,&lt;price per night&gt;
+ * customer,&lt;customer ID&gt;,&lt;name&gt;,&lt;email&gt;,&lt;phone number&gt;
+ * booking,&lt;booking ID&gt;,&lt;customer ID&gt;,&lt;room number&gt;,&lt;check-in DD/MM/YYYY&gt;,&lt;check-out DD/MM/YYYY&gt;
+ * </pre>
+ * Fields may be quoted with double quotes. Blank lines, lines starting with # and a header line
+ * starting with "type" are skipped. A blank customer or booking ID is allocated as usual.
+ *
+ * The file is streamed in chunks of a fixed number of lines, so memory use does not depend on its size.
+ * Each chunk adds its rooms and customers first, then groups its bookings by room. The rooms are
+ * processed in parallel: each room's bookings are sorted by check-in day and swept once, keeping a
+ * booking only if it starts on or after the check-out day of the last one kept, and the survivors are
+ * added in one call that also checks them against the bookings the hotel already holds.
+ * That makes a chunk O(n log n) instead of one availability check against every other row.
+ * Rows that fail validation or overlap are skipped and reported; the rest of the file is still imported.
+ */
+public class HotelImporter
+{
+    // Number of lines buffered before a chunk is applied
+    private static final int CHUNK_ROWS = 50000;
+    
+    // Number of rejected rows reported in detail
+    private static final int MAX_ERRORS = 100;
+    
+    private final HotelManager hotelManager;
+    
+    /**
+     * Constructor for HotelImporter class.
+     * @param hotelManager The hotel manager to import into
+     */
+    public HotelImporter(HotelManager hotelManager)
+    {
+        this.hotelManager = hotelManager;
+    }
+    
+    /**
+     * Import a CSV file (UTF-8)
+     * @param file The file to read
+     * @return The number of records imported and the rows rejected
+     * @throws IOException if the file cannot be read
+     */
+    public Result importFile(File file) throws IOException
+    {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))
+        {
+            return importFrom(reader);
+        }
+    }
+    
+    /**
+     * Import CSV records from a reader
+     * @param source The reader to take the records from (not closed)
+     * @return The number of records imported and the rows rejected
+     * @throws IOException if the reader fails
+     */
+    public Result importFrom(Reader source) throws IOException
+    {
+        BufferedReader reader = new BufferedReader(source, 1 << 16);
+        Result result = new Result();
+        Chunk chunk = new Chunk();
+        ArrayList<String> fields = new ArrayList<String>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null)
+        {
+            lineNumber++;
+            if (line.trim().isEmpty() || line.startsWith("#"))
+            {
+                continue;
+            }
+            splitFields(line, fields);
+            String type = fields.get(0).trim().toLowerCase();
+            if (type.equals("room"))
+            {
+                parseRoom(lineNumber, fields, chunk, result);
+            }
+            else if (type.equals("customer"))
+            {
+                parseCustomer(lineNumber, fields, chunk, result);
+            }
+            else if (type.equals("booking"))
+            {
+                parseBooking(lineNumber, fields, chunk, result);
+            }
+            else if (!(lineNumber == 1 && type.equals("type")))
+            {
+                result.reject(lineNumber, "unknown record type '" + fields.get(0) + "'");
+            }
+            if (chunk.rows >= CHUNK_ROWS)
+            {
+                apply(chunk, result);
+                chunk = new Chunk();
+            }
+        }
+        apply(chunk, result);
+        return result;
+    }
+    
+    /**
+     * Validate a room row and buffer the room
+     */
+    private void parseRoom(int lineNumber, List<String> fields, Chunk chunk, Result result)
+    {
+        if (fields.size() != 4)
+        {
+            result.reject(lineNumber, "a room needs a number, a type and a price per night");
+            return;
+        }
+        int roomNumber = parseInt(fields.get(1));
+        String roomType = fields.get(2).trim();
+        double price = parseDouble(fields.get(3));
+        if (roomNumber <= 0 || roomType.isEmpty() || !(price > 0))
+        {
+            result.reject(lineNumber, "invalid room number, type or price");
+            return;
+        }
+        chunk.rooms.add(new Room(roomNumber, roomType, price));
+        chunk.roomLines.add(lineNumber);
+        chunk.rows++;
+    }
+    
+    /**
+     * Validate a customer row with the Customer validation rules and buffer the customer
+     */
+    private void parseCustomer(int lineNumber, List<String> fields, Chunk chunk, Result result)
+    {
+        if (fields.size() != 5)
+        {
+            result.reject(lineNumber, "a customer needs an ID, a name, an email and a phone number");
+            return;
+        }
+        String id = fields.get(1).trim();
+        String name = fields.get(2).trim();
+        String email = fields.get(3).trim();
+        String phone = fields.get(4).trim();
+        Customer customer;
+        if (id.isEmpty())
+        {
+            customer = hotelManager.createCustomer(name, email, phone);
+        }
+        else
+        {
+            int customerID = parseInt(id);
+            if (customerID <= 0)
+            {
+                result.reject(lineNumber, "invalid customer ID");
+                return;
+            }
+            if (hotelManager.getCustomer(customerID) != null || chunk.customerIDs.containsKey(customerID))
+            {
+                result.reject(lineNumber, "customer " + customerID + " already exists");
+                return;
+            }
+            customer = hotelManager.restoreCustomer(customerID, name, email, phone);
+        }
+        if (!customer.validateName() || !customer.validateEmail() || !customer.validatePhoneNumber())
+        {
+            result.reject(lineNumber, "invalid customer name, email or phone number");
+            return;
+        }
+        chunk.customers.add(customer);
+        chunk.customerIDs.put(customer.getCustomerID(), customer);
+        chunk.rows++;
+    }
+    
+    /**
+     * Validate a booking row's fields and buffer it under its room; customers and rooms are resolved later
+     */
+    private void parseBooking(int lineNumber, List<String> fields, Chunk chunk, Result result)
+    {
+        if (fields.size() != 6)
+        {
+            result.reject(lineNumber, "a booking needs an ID, a customer ID, a room number and two dates");
+            return;
+        }
+        String id = fields.get(1).trim();
+        int bookingID = id.isEmpty() ? 0 : parseInt(id);
+        int customerID = parseInt(fields.get(2));
+        int roomNumber = parseInt(fields.get(3));
+        int checkInDay = BookingDate.tryParse(fields.get(4).trim());
+        int checkOutDay = BookingDate.tryParse(fields.get(5).trim());
+        if (bookingID < 0 || customerID <= 0 || roomNumber <= 0)
+        {
+            result.reject(lineNumber, "invalid booking ID, customer ID or room number");
+            return;
+        }
+        if (checkInDay == BookingDate.INVALID || checkOutDay == BookingDate.INVALID || checkOutDay <= checkInDay)
+        {
+            result.reject(lineNumber, "invalid dates (check-out must be after check-in)");
+            return;
+        }
+        ArrayList<PendingBooking> run = chunk.bookingsByRoom.get(roomNumber);
+        if (run == null)
+        {
+            run = new ArrayList<PendingBooking>();
+            chunk.bookingsByRoom.put(roomNumber, run);
+            chunk.runs.add(run);
+        }
+        run.add(new PendingBooking(lineNumber, bookingID, customerID, roomNumber, checkInDay, checkOutDay));
+        chunk.rows++;
+    }
+    
+    /**
+     * Apply a chunk: rooms and customers first, then the bookings of each room in parallel
+     */
+    private void apply(Chunk chunk, Result result)
+    {
+        if (!chunk.rooms.isEmpty())
+        {
+            boolean[] added = hotelManager.addRooms(chunk.rooms);
+            int count = 0;
+            for (int i = 0; i < added.length; i++)
+            {
+                if (added[i])
+                {
+                    count++;
+                }
+                else
+                {
+                    result.reject(chunk.roomLines.get(i), "room " + chunk.rooms.get(i).getRoomNumber() + " already exists");
+                }
+            }
+            result.roomsAdded(count);
+        }
+        if (!chunk.customers.isEmpty())
+        {
+            hotelManager.addCustomers(chunk.customers);
+            result.customersAdded(chunk.customers.size());
+        }
+        chunk.runs.parallelStream().forEach(run -> importRun(run, chunk, result));
+    }
+    
+    /**
+     * Sort one room's bookings by check-in day, sweep out the ones overlapping each other,
+     * and add the rest in one call
+     */
+    private void importRun(List<PendingBooking> run, Chunk chunk, Result result)
+    {
+        int roomNumber = run.get(0).roomNumber;
+        Room room = hotelManager.getRoom(roomNumber);
+        if (room == null)
+        {
+            for (PendingBooking pending : run)
+            {
+                result.reject(pending.lineNumber, "room " + roomNumber + " does not exist");
+            }
+            return;
+        }
+        Collections.sort(run, (a, b) -> a.checkInDay != b.checkInDay
+            ? Integer.compare(a.checkInDay, b.checkInDay) : Integer.compare(a.lineNumber, b.lineNumber));
+        
+        ArrayList<Booking> stays = new ArrayList<Booking>(run.size());
+        ArrayList<PendingBooking> kept = new ArrayList<PendingBooking>(run.size());
+        PendingBooking last = null;
+        for (PendingBooking pending : run)
+        {
+            Customer customer = chunk.customerIDs.get(pending.customerID);
+            if (customer == null)
+            {
+                customer = hotelManager.getCustomer(pending.customerID);
+            }
+            if (customer == null)
+            {
+                result.reject(pending.lineNumber, "customer " + pending.customerID + " does not exist");
+                continue;
+            }
+            if (last != null && pending.checkInDay < last.checkOutDay)
+            {
+                result.reject(pending.lineNumber, "overlaps the booking on line " + last.lineNumber);
+                continue;
+            }
+            stays.add(pending.bookingID == 0
+                ? hotelManager.createBooking(customer, room, pending.checkInDay, pending.checkOutDay)
+                : hotelManager.restoreBooking(pending.bookingID, customer, room, pending.checkInDay, pending.checkOutDay));
+            kept.add(pending);
+            last = pending;
+        }
+        
+        boolean[] added = hotelManager.addRoomBookings(roomNumber, stays);
+        int count = 0;
+        for (int i = 0; i < added.length; i++)
+        {
+            if (added[i])
+            {
+                count++;
+            }
+            else
+            {
+                result.reject(kept.get(i).lineNumber, "room " + roomNumber + " is already booked for these dates, or the booking ID is in use");
+            }
+        }
+        result.bookingsAdded(count);
+    }
+    
+    /**
+     * Split a CSV line into fields, honouring double-quoted fields and doubled quotes inside them
+     */
+    private static void splitFields(String line, List<String> fields)
+    {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+            if (quoted)
+            {
+                if (c != '"')
+                {
+                    field.append(c);
+                }
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"')
+                {
+                    field.append('"');
+                    i++;
+                }
+                else
+                {
+                    quoted = false;
+                }
+            }
+            else if (c == '"')
+            {
+                quoted = true;
+            }
+            else if (c == ',')
+            {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else
+            {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+    
+    /**
+     * Parse an integer field, returning -1 if it is not a number
+     */
+    private static int parseInt(String field)
+    {
+        try
+        {
+            return Integer.parseInt(field.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+    
+    /**
+     * Parse a decimal field, returning NaN if it is not a number
+     */
+    private static double parseDouble(String field)
+    {
+        try
+        {
+            return Double.parseDouble(field.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            return Double.NaN;
+        }
+    }
+    
+    /**
+     * The rows buffered for one chunk of the file
+     */
+    private static class Chunk
+    {
+        final ArrayList<Room> rooms = new ArrayList<Room>();
+        final ArrayList<Integer> roomLines = new ArrayList<Integer>();
+        final ArrayList<Customer> customers = new ArrayList<Customer>();
+        final IntHashMap<Customer> customerIDs = new IntHashMap<Customer>();
+        final IntHashMap<ArrayList<PendingBooking>> bookingsByRoom = new IntHashMap<ArrayList<PendingBooking>>();
+        final ArrayList<ArrayList<PendingBooking>> runs = new ArrayList<ArrayList<PendingBooking>>();
+        int rows;
+    }
+    
+    /**
+     * A parsed booking row whose customer and room have not been resolved yet
+     */
+    private static class PendingBooking
+    {
+        final int lineNumber;
+        final int bookingID;
+        final int customerID;
+        final int roomNumber;
+        final int checkInDay;
+        final int checkOutDay;
+        
+        PendingBooking(int lineNumber, int bookingID, int customerID, int roomNumber, int checkInDay, int checkOutDay)
+        {
+            this.lineNumber = lineNumber;
+            this.bookingID = bookingID;
+            this.customerID = customerID;
+            this.roomNumber = roomNumber;
+            this.checkInDay = checkInDay;
+            this.checkOutDay = checkOutDay;
+        }
+    }
+    
+    /**
+     * The outcome of an import: how many records were added and which rows were rejected
+     */
+    public static class Result
+    {
+        private int roomsAdded;
+        private int customersAdded;
+        private int bookingsAdded;
+        private int rejected;
+        private final ArrayList<String> errors = new ArrayList<String>();
+        
+        /**
+         * Get the number of rooms added
+         * @return The room count
+         */
+        public synchronized int getRoomsAdded()
+        {
+            return roomsAdded;
+        }
+        
+        /**
+         * Get the number of customers added
+         * @return The customer count
+         */
+        public synchronized int getCustomersAdded()
+        {
+            return customersAdded;
+        }
+        
+        /**
+         * Get the number of bookings added
+         * @return The booking count
+         */
+        public synchronized int getBookingsAdded()
+        {
+            return bookingsAdded;
+        }
+        
+        /**
+         * Get the number of rows rejected
+         * @return The rejected row count
+         */
+        public synchronized int getRejected()
+        {
+            return rejected;
+        }
+        
+        /**
+         * Get the reasons for the first rejected rows
+         * @return Up to 100 messages of the form "Line n: reason", in no particular order
+         */
+        public synchronized List<String> getErrors()
+        {
+            return new ArrayList<String>(errors);
+        }
+        
+        synchronized void roomsAdded(int count)
+        {
+            roomsAdded += count;
+        }
+        
+        synchronized void customersAdded(int count)
+        {
+            customersAdded += count;
+        }
+        
+        synchronized void bookingsAdded(int count)
+        {
+            bookingsAdded += count;
+        }
+        
+        synchronized void reject(int lineNumber, String reason)
+        {
+            rejected++;
+            if (errors.size() < MAX_ERRORS)
+            {
+                errors.add("Line " + lineNumber + ": " + reason);
+            }
+        }
+        
+        /**
+         * Return a one-line summary of the import
+         * @return The counts as a string
+         */
+        @Override
+        public synchronized String toString()
+        {
+            return "Imported " + roomsAdded + " rooms, " + customersAdded + " customers and "
+                   + bookingsAdded + " bookings; " + rejected + " rows rejected";
+        }
+    }
+}
@@ -1,259 +1,1668 @@
-import java.util.ArrayList;
-
-/**
- * Manages all hotel operations including rooms, bookings, and customers.
- * Acts as the central data manager for the hotel booking system.
- */
-public class HotelManager
-{
-    private ArrayList<Room> rooms;
-    private ArrayList<Booking> bookings;
-    private ArrayList<Customer> customers;
-    
-    /**
-     * Constructor for HotelManager class.
-     * Initializes empty collections for rooms, bookings, and customers.
-     * Pre-populates with sample test data (5 rooms of different types).
-     */
-    public HotelManager()
-    {
-        rooms = new ArrayList<Room>();
-        bookings = new ArrayList<Booking>();
-        customers = new ArrayList<Customer>();
-        
-        // Pre-populate with sample test data
-        initializeSampleRooms();
-    }
-    
-    /**
-     * Initialize sample rooms for testing purposes
-     */
-    private void initializeSampleRooms()
-    {
-        rooms.add(new Room(101, "Single", 100.0));
-        rooms.add(new Room(102, "Single", 100.0));
-        rooms.add(new Room(201, "Double", 150.0));
-        rooms.add(new Room(202, "Double", 150.0));
-        rooms.add(new Room(301, "Suite", 250.0));
-    }
-    
-    /**
-     * Add a room to the system
-     * @param room The Room object to add
-     */
-    public void addRoom(Room room)
-    {
-        rooms.add(room);
-    }
-    
-    /**
-     * Remove a room from the system by room number
-     * @param roomNumber The room number to remove
-     * @return true if room was removed, false if not found
-     */
-    public boolean removeRoom(int roomNumber)
-    {
-        for (int i = 0; i < rooms.size(); i++)
-        {
-            if (rooms.get(i).getRoomNumber() == roomNumber)
-            {
-                rooms.remove(i);
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    /**
-     * Get all rooms
-     * @return ArrayList of all rooms
-     */
-    public ArrayList<Room> getAllRooms()
-    {
-        return rooms;
-    }
-    
-    /**
-     * Add a customer to the system
-     * @param customer The Customer object to add
-     */
-    public void addCustomer(Customer customer)
-    {
-        customers.add(customer);
-    }
-    
-    /**
-     * Get all customers
-     * @return ArrayList of all customers
-     */
-    public ArrayList<Customer> getAllCustomers()
-    {
-        return customers;
-    }
-    
-    /**
-     * Add a booking to the system
-     * @param booking The Booking object to add
-     * @return true if booking was added, false if not
-     */
-    public boolean addBooking(Booking booking)
-    {
-        // Calculate the total price before adding
-        booking.calculateTotalPrice();
-        bookings.add(booking);
-        return true;
-    }
-    
-    /**
-     * Get all bookings
-     * @return ArrayList of all bookings
-     */
-    public ArrayList<Booking> getAllBookings()
-    {
-        return bookings;
-    }
-    
-    /**
-     * Cancel a booking by booking ID
-     * @param bookingID The booking ID to cancel
-     * @return true if booking was cancelled, false if not found
-     */
-    public boolean cancelBooking(int bookingID)
-    {
-        for (int i = 0; i < bookings.size(); i++)
-        {
-            if (bookings.get(i).getBookingID() == bookingID)
-            {
-                bookings.remove(i);
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    /**
-     * Search for available rooms by room type
-     * @param roomType The room type to search for
-     * @return ArrayList of available rooms of the specified type
-     */
-    public ArrayList<Room> searchAvailableRooms(String roomType)
-    {
-        ArrayList<Room> availableRooms = new ArrayList<Room>();
-        for (Room room : rooms)
-        {
-            if (room.getRoomType().equals(roomType) && room.isAvailable())
-            {
-                availableRooms.add(room);
-            }
-        }
-        return availableRooms;
-    }
-    
-    /**
-     * Search for bookings by customer name (case-sensitive)
-     * @param customerName The customer name to search for
-     * @return ArrayList of bookings matching the customer name
-     */
-    public ArrayList<Booking> searchBookingsByCustomerName(String customerName)
-    {
-        ArrayList<Booking> matchingBookings = new ArrayList<Booking>();
-        for (Booking booking : bookings)
-        {
-            if (booking.getCustomer().getName().equals(customerName))
-            {
-                matchingBookings.add(booking);
-            }
-        }
-        return matchingBookings;
-    }
-    
-    /**
-     * Search for a booking by booking ID
-     * @param bookingID The booking ID to search for
-     * @return The Booking object if found, null otherwise
-     */
-    public Booking searchBookingByID(int bookingID)
-    {
-        for (Booking booking : bookings)
-        {
-            if (booking.getBookingID() == bookingID)
-            {
-                return booking;
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * Check if a specific room is available for a given date range
-     * @param roomNumber The room number to check
-     * @param checkInDate The check-in date (DD/MM/YYYY format)
-     * @param checkOutDate The check-out date (DD/MM/YYYY format)
-     * @return true if room is available for the date range, false otherwise
-     */
-    public boolean isRoomAvailableForDates(int roomNumber, String checkInDate, String checkOutDate)
-    {
-        // Check all bookings to see if this room is booked during the requested dates
-        for (Booking booking : bookings)
-        {
-            if (booking.getRoom().getRoomNumber() == roomNumber)
-            {
-                // Check for date overlap
-                if (datesOverlap(checkInDate, checkOutDate, booking.getCheckInDate(), booking.getCheckOutDate()))
-                {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
-    
-    /**
-     * Helper method to check if two date ranges overlap
-     * @param newCheckIn New check-in date (DD/MM/YYYY format)
-     * @param newCheckOut New check-out date (DD/MM/YYYY format)
-     * @param existingCheckIn Existing check-in date (DD/MM/YYYY format)
-     * @param existingCheckOut Existing check-out date (DD/MM/YYYY format)
-     * @return true if dates overlap, false otherwise
-     */
-    private boolean datesOverlap(String newCheckIn, String newCheckOut, String existingCheckIn, String existingCheckOut)
-    {
-        try
-        {
-            long newCheckInTime = dateToMillis(newCheckIn);
-            long newCheckOutTime = dateToMillis(newCheckOut);
-            long existingCheckInTime = dateToMillis(existingCheckIn);
-            long existingCheckOutTime = dateToMillis(existingCheckOut);
-            
-            // Check overlap: new booking starts before existing ends and ends after existing starts
-            return newCheckInTime < existingCheckOutTime && newCheckOutTime > existingCheckInTime;
-        }
-        catch (Exception e)
-        {
-            return false;
-        }
-    }
-    
-    /**
-     * Helper method to convert a date string to milliseconds
-     * @param dateStr Date in DD/MM/YYYY format
-     * @return Milliseconds representation of the date
-     */
-    private long dateToMillis(String dateStr)
-    {
-        try
-        {
-            int day = Integer.parseInt(dateStr.substring(0, 2));
-            int month = Integer.parseInt(dateStr.substring(3, 5));
-            int year = Integer.parseInt(dateStr.substring(6, 10));
-            
-            // Simple conversion: (year * 365 + month * 30 + day) * 24 * 60 * 60 * 1000
-            long millis = ((long)year * 365 + month * 30 + day) * 24 * 60 * 60 * 1000L;
-            return millis;
-        }
-        catch (Exception e)
-        {
-            return 0;
-        }
-    }
-}
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Manages all hotel operations including rooms, bookings, and customers.
+ * Acts as the central data manager for the hotel booking system.
+ * 
+ * Safe to share between threads. Changes to the room inventory take an exclusive lock;
+ * booking operations share that lock and then lock one stripe of a fixed array of room locks,
+ * so bookings for different rooms run in parallel and only bookings for rooms on the same stripe wait.
+ * The booking ledger and its indexes are guarded by a short ledger lock.
+ * Lock order is always: structure lock, room stripe, ledger lock; an operation that needs several
+ * room stripes takes them in ascending stripe order.
+ * 
+ * When created with a data directory, every change is also appended to a write-ahead journal
+ * while its locks are held, and the method returns once the journal has synced it to disk.
+ * The wait happens after the locks are released, so concurrent changes share one disk sync.
+ * Once the current journal segment grows past a threshold, a checkpoint captures the state
+ * under a brief exclusive lock and writes it out as a snapshot in the background, so the
+ * next startup only has to load the snapshot and replay the changes made after it.
+ * 
+ * Rooms, customers and bookings are kept in the repositories of a pluggable StorageEngine,
+ * so the same manager runs in memory only or journaled.
+ * 
+ * Registered HotelChangeListeners hear about every booking, cancellation, room and rate change
+ * once it is durable, so screens can apply just that change instead of reloading everything.
+ */
+public class HotelManager
+{
+    private final StorageEngine engine;
+    private RoomRepository rooms;
+    private BookingRepository bookings;
+    private CustomerNameIndex bookingsByName;
+    private CustomerRepository customers;
+    private final IdAllocator customerIDs;
+    private final IdAllocator bookingIDs;
+    private IntHashMap<BookingIntervalTree> roomSchedules;
+    private final RateCalendar rates;
+    private volatile OccupancyCalendar occupancy;
+    private volatile BookingJournal journal;
+    private final ExecutorService checkpointWriter;
+    private final AtomicBoolean checkpointing;
+    private final CopyOnWriteArrayList<HotelChangeListener> listeners;
+    
+    private final ReentrantReadWriteLock structureLock;
+    private final ReentrantLock[] roomLocks;
+    private final Object ledgerLock;
+    
+    // Number of room lock stripes (a power of two, at most 64 so a set of stripes fits in a long)
+    private static final int ROOM_LOCK_STRIPES = 64;
+    
+    // Occupancy calendar horizon: a month of history plus five years ahead
+    private static final int CALENDAR_PAST_DAYS = 31;
+    private static final int CALENDAR_HORIZON_DAYS = 5 * 366;
+    
+    // Journal segment size that triggers a checkpoint
+    private static final long CHECKPOINT_BYTES = 8L << 20;
+    
+    // Bookings a streamed name search visits per hold of the ledger lock
+    private static final int SEARCH_STEP_BOOKINGS = 1024;
+    
+    /**
+     * Callback for receiving bookings from a streamed search
+     */
+    public interface BookingVisitor
+    {
+        /**
+         * Receive one matching booking
+         * @param booking The booking
+         * @return true to keep searching, false to stop the search
+         */
+        boolean visit(Booking booking);
+    }
+    
+    /**
+     * Constructor for HotelManager class.
+     * Keeps everything in memory only and pre-populates with sample test data (5 rooms of different types).
+     */
+    public HotelManager()
+    {
+        this(new InMemoryStorageEngine());
+    }
+    
+    /**
+     * Constructor for HotelManager class.
+     * Keeps rooms, customers and bookings in memory and journals every change to the data directory.
+     * @param dataDirectory The directory holding the journal, or null to keep everything in memory only
+     * @throws IllegalStateException if the journal cannot be read or opened for writing
+     */
+    public HotelManager(File dataDirectory)
+    {
+        this(dataDirectory == null ? new InMemoryStorageEngine() : new JournaledStorageEngine(dataDirectory));
+    }
+    
+    /**
+     * Constructor for HotelManager class.
+     * Takes the rooms, bookings, and customers repositories from the storage engine and initializes
+     * a customer name index over the bookings, a per-room interval index of booked stays keyed by room number
+     * and a bitset occupancy calendar covering the coming years.
+     * If the engine has a journal, the latest snapshot and the journal written after it are replayed to restore
+     * the saved rooms, customers and bookings; an engine without one, or a new journal, is pre-populated
+     * with sample test data (5 rooms of different types).
+     * @param engine The storage engine to keep the hotel's data in
+     * @throws IllegalStateException if the journal cannot be read or opened for writing
+     */
+    public HotelManager(StorageEngine engine)
+    {
+        this.engine = engine;
+        rooms = engine.getRooms();
+        bookings = engine.getBookings();
+        bookingsByName = new CustomerNameIndex();
+        customers = engine.getCustomers();
+        customerIDs = engine.getCustomerIdAllocator();
+        bookingIDs = engine.getBookingIdAllocator();
+        roomSchedules = new IntHashMap<BookingIntervalTree>();
+        occupancy = new OccupancyCalendar(BookingDate.today() - CALENDAR_PAST_DAYS, CALENDAR_HORIZON_DAYS);
+        rates = new RateCalendar();
+        structureLock = new ReentrantReadWriteLock();
+        roomLocks = new ReentrantLock[ROOM_LOCK_STRIPES];
+        for (int i = 0; i < roomLocks.length; i++)
+        {
+            roomLocks[i] = new ReentrantLock();
+        }
+        ledgerLock = new Object();
+        checkpointing = new AtomicBoolean();
+        listeners = new CopyOnWriteArrayList<HotelChangeListener>();
+        checkpointWriter = Executors.newSingleThreadExecutor(task ->
+        {
+            Thread thread = new Thread(task, "hotel-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        // Replayed changes are applied while there is no journal yet, so they are not written again
+        BookingJournal opened = engine.openJournal(new JournalReplay());
+        if (opened == null)
+        {
+            // Pre-populate with sample test data
+            initializeSampleRooms();
+            return;
+        }
+        journal = opened;
+        if (opened.getRecoveredRecords() == 0)
+        {
+            initializeSampleRooms();
+        }
+    }
+    
+    /**
+     * Initialize sample rooms for testing purposes
+     */
+    private void initializeSampleRooms()
+    {
+        addRoom(new Room(101, "Single", 100.0));
+        addRoom(new Room(102, "Single", 100.0));
+        addRoom(new Room(201, "Double", 150.0));
+        addRoom(new Room(202, "Double", 150.0));
+        addRoom(new Room(301, "Suite", 250.0));
+    }
+    
+    /**
+     * Add a room to the system
+     * @param room The Room object to add
+     * @return true if room was added, false if the room number is already in use
+     */
+    public boolean addRoom(Room room)
+    {
+        long seq;
+        structureLock.writeLock().lock();
+        try
+        {
+            if (!rooms.add(room))
+            {
+                return false;
+            }
+            room.addedToHotel();
+            createRoomIndex(room.getRoomNumber());
+            BookingJournal log = journal;
+            seq = log == null ? 0 : log.recordRoomAdded(room);
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+        awaitDurable(seq);
+        fireRoomsAdded(Collections.singletonList(room));
+        return true;
+    }
+    
+    /**
+     * Add several rooms at once, under one exclusive lock and one journal wait
+     * @param newRooms The Room objects to add
+     * @return For each room, true if it was added, false if its room number is already in use
+     */
+    public boolean[] addRooms(List<Room> newRooms)
+    {
+        boolean[] added = new boolean[newRooms.size()];
+        ArrayList<Room> addedRooms = new ArrayList<Room>();
+        long seq = 0;
+        structureLock.writeLock().lock();
+        try
+        {
+            BookingJournal log = journal;
+            for (int i = 0; i < added.length; i++)
+            {
+                Room room = newRooms.get(i);
+                if (rooms.add(room))
+                {
+                    room.addedToHotel();
+                    createRoomIndex(room.getRoomNumber());
+                    seq = log == null ? 0 : log.recordRoomAdded(room);
+                    added[i] = true;
+                    addedRooms.add(room);
+                }
+            }
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+        awaitDurable(seq);
+        fireRoomsAdded(addedRooms);
+        return added;
+    }
+    
+    /**
+     * Remove a room from the system by room number
+     * @param roomNumber The room number to remove
+     * @return true if room was removed, false if not found
+     */
+    public boolean removeRoom(int roomNumber)
+    {
+        Room room;
+        long seq;
+        structureLock.writeLock().lock();
+        try
+        {
+            // The room's interval index is kept, since existing bookings may still refer to it
+            room = rooms.remove(roomNumber);
+            if (room == null)
+            {
+                return false;
+            }
+            BookingJournal log = journal;
+            seq = log == null ? 0 : log.recordRoomRemoved(roomNumber);
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+        awaitDurable(seq);
+        for (HotelChangeListener listener : listeners)
+        {
+            listener.roomRemoved(room);
+        }
+        return true;
+    }
+    
+    /**
+     * Change the nightly price of a room.
+     * Bookings made afterwards are priced with it (on nights without a rate); existing bookings keep their price.
+     * @param roomNumber The room number
+     * @param priceCentsPerNight The new nightly rate in cents
+     * @return true if the price was changed, false if the room was not found
+     * @throws IllegalArgumentException if the price is negative
+     */
+    public boolean setRoomPrice(int roomNumber, long priceCentsPerNight)
+    {
+        if (priceCentsPerNight < 0)
+        {
+            throw new IllegalArgumentException("Room price must not be negative");
+        }
+        return changeRoom(roomNumber, room -> room.change(priceCentsPerNight, room.isAvailable()));
+    }
+    
+    /**
+     * Take a room out of service or put it back; rooms out of service are left out of availability searches
+     * @param roomNumber The room number
+     * @param available true to put the room in service, false to take it out
+     * @return true if the room was changed, false if it was not found
+     */
+    public boolean setRoomAvailable(int roomNumber, boolean available)
+    {
+        return changeRoom(roomNumber, room -> room.change(room.getPriceCentsPerNight(), available));
+    }
+    
+    /**
+     * Change a room in place under the exclusive lock, journal its new price and availability and tell the listeners
+     * @param roomNumber The room number
+     * @param change The change to make to the room
+     * @return true if the room was changed, false if it was not found
+     */
+    private boolean changeRoom(int roomNumber, Consumer<Room> change)
+    {
+        Room room;
+        long seq;
+        structureLock.writeLock().lock();
+        try
+        {
+            room = rooms.find(roomNumber);
+            if (room == null)
+            {
+                return false;
+            }
+            change.accept(room);
+            BookingJournal log = journal;
+            seq = log == null ? 0 : log.recordRoomChanged(room);
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+        awaitDurable(seq);
+        for (HotelChangeListener listener : listeners)
+        {
+            listener.roomChanged(room);
+        }
+        return true;
+    }
+    
+    /**
+     * Set the nightly rate of a room type for a range of nights, for seasonal, weekend or event pricing.
+     * Bookings made afterwards are priced with it; existing bookings keep their price.
+     * @param roomType The room type
+     * @param fromDay The first night as an epoch day
+     * @param toDay The day after the last night
+     * @param weekdays The nights of the week to set (RateCalendar.ALL_NIGHTS, RateCalendar.WEEKEND_NIGHTS,
+     *                 or one bit per day from Monday in bit 0 to Sunday in bit 6)
+     * @param centsPerNight The nightly rate in cents
+     * @throws IllegalArgumentException if the range is empty or the rate negative
+     */
+    public void setRate(String roomType, int fromDay, int toDay, int weekdays, long centsPerNight)
+    {
+        long seq;
+        structureLock.writeLock().lock();
+        try
+        {
+            rates.setRate(roomType, fromDay, toDay, weekdays, centsPerNight);
+            BookingJournal log = journal;
+            seq = log == null ? 0 : log.recordRateSet(roomType, fromDay, toDay, weekdays, centsPerNight);
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+        awaitDurable(seq);
+        fireRatesChanged(roomType, fromDay, toDay);
+    }
+    
+    /**
+     * Clear the rate of a room type for a range of nights, so those nights are charged at each room's own price
+     * @param roomType The room type
+     * @param fromDay The first night as an epoch day
+     * @param toDay The day after the last night
+     * @param weekdays The nights of the week to clear
+     * @throws IllegalArgumentException if the range is empty
+     */
+    public void clearRate(String roomType, int fromDay, int toDay, int weekdays)
+    {
+        long seq;
+        structureLock.writeLock().lock();
+        try
+        {
+            rates.clearRate(roomType, fromDay, toDay, weekdays);
+            BookingJournal log = journal;
+            seq = log == null ? 0 : log.recordRateCleared(roomType, fromDay, toDay, weekdays);
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+        awaitDurable(seq);
+        fireRatesChanged(roomType, fromDay, toDay);
+    }
+    
+    /**
+     * Get the current room rates, for quoting stays or re-pricing bookings (see RateCalendar.priceAll).
+     * Taken in O(1) without locking; change rates through setRate and clearRate so they are journaled.
+     * @return A copy of the rate calendar that later rate changes do not affect
+     */
+    public RateCalendar getRateCalendar()
+    {
+        return rates.copy();
+    }
+    
+    /**
+     * Price a possible stay without booking it, cheap enough to call on every keystroke.
+     * Creates no booking or customer and uses no IDs; the dates are parsed without exceptions and
+     * the stay is priced from the rate calendar in O(1).
+     * @param roomNumber The room number
+     * @param checkInDate The check-in date (DD/MM/YYYY format)
+     * @param checkOutDate The check-out date (DD/MM/YYYY format)
+     * @return The quote, or one of the shared failure quotes if the dates are invalid,
+     *         the room does not exist or it is booked for part of the stay
+     */
+    public PriceQuote quote(int roomNumber, String checkInDate, String checkOutDate)
+    {
+        return quote(roomNumber, BookingDate.tryParse(checkInDate), BookingDate.tryParse(checkOutDate));
+    }
+    
+    /**
+     * Price a possible stay, given as epoch days, without booking it
+     * @param roomNumber The room number
+     * @param checkInDay The check-in date as an epoch day
+     * @param checkOutDay The check-out date as an epoch day
+     * @return The quote, or one of the shared failure quotes if the dates are invalid,
+     *         the room does not exist or it is booked for part of the stay
+     */
+    public PriceQuote quote(int roomNumber, int checkInDay, int checkOutDay)
+    {
+        if (checkInDay == BookingDate.INVALID || checkOutDay == BookingDate.INVALID || checkOutDay <= checkInDay)
+        {
+            return PriceQuote.INVALID_DATES;
+        }
+        rollCalendarIfDue();
+        structureLock.readLock().lock();
+        try
+        {
+            Room room = rooms.find(roomNumber);
+            if (room == null)
+            {
+                return PriceQuote.NO_SUCH_ROOM;
+            }
+            ReentrantLock roomLock = roomLock(roomNumber);
+            roomLock.lock();
+            try
+            {
+                if (!isRoomFreeLocked(roomNumber, checkInDay, checkOutDay))
+                {
+                    return PriceQuote.UNAVAILABLE;
+                }
+            }
+            finally
+            {
+                roomLock.unlock();
+            }
+            return PriceQuote.priced(checkOutDay - checkInDay, rates.price(room, checkInDay, checkOutDay));
+        }
+        finally
+        {
+            structureLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Find a room by room number
+     * @param roomNumber The room number to look up
+     * @return The Room object if found, null otherwise
+     */
+    public Room getRoom(int roomNumber)
+    {
+        structureLock.readLock().lock();
+        try
+        {
+            return rooms.find(roomNumber);
+        }
+        finally
+        {
+            structureLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Get all rooms.
+     * The snapshot is shared between callers and rebuilt only after the rooms change.
+     * @return Immutable snapshot of all rooms
+     */
+    public List<Room> getAllRooms()
+    {
+        structureLock.readLock().lock();
+        try
+        {
+            return rooms.getAllRooms();
+        }
+        finally
+        {
+            structureLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Get all rooms of one type
+     * @param roomType The room type
+     * @return ArrayList of the rooms of that type, available or not
+     */
+    public ArrayList<Room> getRoomsOfType(String roomType)
+    {
+        structureLock.readLock().lock();
+        try
+        {
+            return new ArrayList<Room>(rooms.getRoomsOfType(roomType));
+        }
+        finally
+        {
+            structureLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Create a customer with a new ID from this hotel's customer ID sequence; it is not added yet
+     * @param name The customer's full name
+     * @param email The customer's email address
+     * @param phoneNumber The customer's phone number
+     * @return The new Customer object
+     */
+    public Customer createCustomer(String name, String email, String phoneNumber)
+    {
+        return new Customer(customerIDs.next(), name, email, phoneNumber);
+    }
+    
+    /**
+     * Create a customer with a known ID, for example one read from an import; later customers get IDs above it
+     * @param customerID The customer's saved ID
+     * @param name The customer's full name
+     * @param email The customer's email address
+     * @param phoneNumber The customer's phone number
+     * @return The new Customer object
+     */
+    public Customer restoreCustomer(int customerID, String name, String email, String phoneNumber)
+    {
+        customerIDs.reserveThrough(customerID);
+        return new Customer(customerID, name, email, phoneNumber);
+    }
+    
+    /**
+     * Add a customer to the system
+     * @param customer The Customer object to add
+     */
+    public void addCustomer(Customer customer)
+    {
+        long seq;
+        synchronized (ledgerLock)
+        {
+            customers.add(customer);
+            BookingJournal log = journal;
+            seq = log == null ? 0 : log.recordCustomerAdded(customer);
+        }
+        awaitDurable(seq);
+    }
+    
+    /**
+     * Add several customers at once, waiting for the journal only once
+     * @param newCustomers The Customer objects to add
+     */
+    public void addCustomers(List<Customer> newCustomers)
+    {
+        long seq = 0;
+        synchronized (ledgerLock)
+        {
+            BookingJournal log = journal;
+            for (Customer customer : newCustomers)
+            {
+                customers.add(customer);
+                seq = log == null ? 0 : log.recordCustomerAdded(customer);
+            }
+        }
+        awaitDurable(seq);
+    }
+    
+    /**
+     * Find a customer by customer ID
+     * @param customerID The customer ID to look up
+     * @return The Customer object if found, null otherwise
+     */
+    public Customer getCustomer(int customerID)
+    {
+        synchronized (ledgerLock)
+        {
+            return customers.find(customerID);
+        }
+    }
+    
+    /**
+     * Get all customers
+     * @return List of all customers (a copy)
+     */
+    public List<Customer> getAllCustomers()
+    {
+        synchronized (ledgerLock)
+        {
+            return customers.getAllCustomers();
+        }
+    }
+    
+    /**
+     * Create a booking with a new ID from this hotel's booking ID sequence; it is not added yet
+     * @param customer The customer making the booking
+     * @param room The room being booked
+     * @param checkInDate The check-in date (DD/MM/YYYY format)
+     * @param checkOutDate The check-out date (DD/MM/YYYY format)
+     * @return The new Booking object
+     * @throws IllegalArgumentException if either date is not a valid DD/MM/YYYY date
+     */
+    public Booking createBooking(Customer customer, Room room, String checkInDate, String checkOutDate)
+    {
+        return createBooking(customer, room, BookingDate.parse(checkInDate), BookingDate.parse(checkOutDate));
+    }
+    
+    /**
+     * Create a booking with a new ID from this hotel's booking ID sequence; it is not added yet
+     * @param customer The customer making the booking
+     * @param room The room being booked
+     * @param checkInDay The check-in date as an epoch day
+     * @param checkOutDay The check-out date as an epoch day
+     * @return The new Booking object
+     */
+    public Booking createBooking(Customer customer, Room room, int checkInDay, int checkOutDay)
+    {
+        return new Booking(bookingIDs.next(), customer, room, checkInDay, checkOutDay);
+    }
+    
+    /**
+     * Create a booking with a known ID, for example one read from an import; later bookings get IDs above it
+     * @param bookingID The booking's saved ID
+     * @param customer The customer making the booking
+     * @param room The room being booked
+     * @param checkInDay The check-in date as an epoch day
+     * @param checkOutDay The check-out date as an epoch day
+     * @return The new Booking object
+     */
+    public Booking restoreBooking(int bookingID, Customer customer, Room room, int checkInDay, int checkOutDay)
+    {
+        bookingIDs.reserveThrough(bookingID);
+        return new Booking(bookingID, customer, room, checkInDay, checkOutDay);
+    }
+    
+    /**
+     * Add a booking to the system without checking for conflicting bookings.
+     * Use tryBook to check availability and book in one atomic step.
+     * @param booking The Booking object to add
+     * @return true if booking was added, false if not (check-out must be after check-in,
+     *         and the booking ID must not already be in use)
+     */
+    public boolean addBooking(Booking booking)
+    {
+        return insertBooking(booking, true);
+    }
+    
+    /**
+     * Add a run of bookings for one room, skipping any that would overlap a booking already held for the room.
+     * The whole run is checked and stored under one acquisition of the room's lock and waits for the journal once,
+     * so bulk loads do not pay a lock round trip and a disk sync per booking. Prices are calculated as in addBooking.
+     * @param roomNumber The room every booking in the run is for
+     * @param stays The bookings, sorted by check-in day (for example after a sort-and-sweep over the run)
+     * @return For each booking, true if it was added, false if the room was already booked for part of the stay,
+     *         the stay is empty or the booking ID is already in use
+     */
+    public boolean[] addRoomBookings(int roomNumber, List<Booking> stays)
+    {
+        boolean[] added = new boolean[stays.size()];
+        ArrayList<Booking> addedStays = new ArrayList<Booking>();
+        rollCalendarIfDue();
+        ensureRoomIndex(roomNumber);
+        
+        long seq = 0;
+        structureLock.readLock().lock();
+        ReentrantLock roomLock = roomLock(roomNumber);
+        roomLock.lock();
+        try
+        {
+            for (int i = 0; i < added.length; i++)
+            {
+                Booking booking = stays.get(i);
+                int checkInDay = booking.getCheckInDay();
+                int checkOutDay = booking.getCheckOutDay();
+                if (booking.getRoom().getRoomNumber() != roomNumber || checkOutDay <= checkInDay
+                    || !isRoomFreeLocked(roomNumber, checkInDay, checkOutDay))
+                {
+                    continue;
+                }
+                booking.calculateTotalPrice(rates);
+                long stored = storeBooking(booking);
+                if (stored >= 0)
+                {
+                    seq = Math.max(seq, stored);
+                    added[i] = true;
+                    addedStays.add(booking);
+                }
+            }
+        }
+        finally
+        {
+            roomLock.unlock();
+            structureLock.readLock().unlock();
+        }
+        awaitDurable(seq);
+        fireBookingsAdded(addedStays);
+        return added;
+    }
+    
+    /**
+     * Helper method to add a booking without checking for conflicting bookings
+     * @param calculatePrice true to calculate the total price, false to keep the booking's own (for restored bookings)
+     * @return true if booking was added, false if not
+     */
+    private boolean insertBooking(Booking booking, boolean calculatePrice)
+    {
+        if (booking.getCheckOutDay() <= booking.getCheckInDay())
+        {
+            return false;
+        }
+        int roomNumber = booking.getRoom().getRoomNumber();
+        rollCalendarIfDue();
+        ensureRoomIndex(roomNumber);
+        
+        long seq;
+        structureLock.readLock().lock();
+        ReentrantLock roomLock = roomLock(roomNumber);
+        roomLock.lock();
+        try
+        {
+            if (calculatePrice)
+            {
+                // Calculate the total price before adding
+                booking.calculateTotalPrice(rates);
+            }
+            seq = storeBooking(booking);
+        }
+        finally
+        {
+            roomLock.unlock();
+            structureLock.readLock().unlock();
+        }
+        if (seq < 0)
+        {
+            return false;
+        }
+        awaitDurable(seq);
+        fireBookingsAdded(Collections.singletonList(booking));
+        return true;
+    }
+    
+    /**
+     * Book a room for a stay if, and only if, it is free for the whole stay.
+     * The availability check and the insert happen under the room's lock, so two
+     * concurrent requests for the same room and dates can never both succeed.
+     * @param customer The customer making the booking
+     * @param roomNumber The room number to book
+     * @param checkInDate The check-in date (DD/MM/YYYY format)
+     * @param checkOutDate The check-out date (DD/MM/YYYY format)
+     * @return The new Booking if the room was booked, or null if the dates are invalid,
+     *         the room does not exist, it is already booked for part of the stay or the booking could not be stored
+     */
+    public Booking tryBook(Customer customer, int roomNumber, String checkInDate, String checkOutDate)
+    {
+        int checkInDay = BookingDate.tryParse(checkInDate);
+        int checkOutDay = BookingDate.tryParse(checkOutDate);
+        if (checkInDay == BookingDate.INVALID || checkOutDay == BookingDate.INVALID || checkOutDay <= checkInDay)
+        {
+            return null;
+        }
+        rollCalendarIfDue();
+        
+        Booking booking;
+        long seq;
+        structureLock.readLock().lock();
+        try
+        {
+            Room room = rooms.find(roomNumber);
+            if (room == null)
+            {
+                return null;
+            }
+            ReentrantLock roomLock = roomLock(roomNumber);
+            roomLock.lock();
+            try
+            {
+                if (!isRoomFreeLocked(roomNumber, checkInDay, checkOutDay))
+                {
+                    return null;
+                }
+                // The booking is only created once the room is known to be free, so no ID is wasted
+                booking = createBooking(customer, room, checkInDay, checkOutDay);
+                booking.calculateTotalPrice(rates);
+                seq = storeBooking(booking);
+            }
+            finally
+            {
+                roomLock.unlock();
+            }
+        }
+        finally
+        {
+            structureLock.readLock().unlock();
+        }
+        if (seq < 0)
+        {
+            return null;
+        }
+        awaitDurable(seq);
+        fireBookingsAdded(Collections.singletonList(booking));
+        return booking;
+    }
+    
+    /**
+     * Add a group of bookings all together or not at all.
+     * Every room's lock stripe is taken once, in ascending stripe order so two groups can never deadlock,
+     * and the whole group is checked in one pass: each stay against the room's existing bookings, and the
+     * stays against each other after sorting them by room and check-in. Only if every check passes are the
+     * bookings priced and stored, under one ledger lock. The group is journaled as one record, so after a crash
+     * replay restores either the whole group or none of it, and the call waits for the journal once.
+     * @param group The bookings to add; each room must be in the hotel
+     * @return true if every booking was added, false if none was (a stay is empty, its room does not exist,
+     *         it clashes with an existing booking or another booking of the group, or a booking ID is in use)
+     * @throws IllegalArgumentException if the group is too large for one journal record
+     */
+    public boolean addBookings(List<Booking> group)
+    {
+        if (group.isEmpty())
+        {
+            return true;
+        }
+        rollCalendarIfDue();
+        
+        // Sorted by room and check-in, a clash within the group is always between neighbours
+        ArrayList<Booking> sorted = new ArrayList<Booking>(group);
+        sorted.sort(Comparator.comparingInt((Booking booking) -> booking.getRoom().getRoomNumber())
+                              .thenComparingInt(Booking::getCheckInDay));
+        long stripes = 0;
+        for (int i = 0; i < sorted.size(); i++)
+        {
+            Booking booking = sorted.get(i);
+            if (booking.getCheckOutDay() <= booking.getCheckInDay())
+            {
+                return false;
+            }
+            if (i > 0)
+            {
+                Booking previous = sorted.get(i - 1);
+                if (previous.getRoom().getRoomNumber() == booking.getRoom().getRoomNumber()
+                    && booking.getCheckInDay() < previous.getCheckOutDay())
+                {
+                    return false;
+                }
+            }
+            stripes |= 1L << roomStripe(booking.getRoom().getRoomNumber());
+        }
+        
+        long seq = 0;
+        structureLock.readLock().lock();
+        try
+        {
+            for (Booking booking : sorted)
+            {
+                if (rooms.find(booking.getRoom().getRoomNumber()) == null)
+                {
+                    return false;
+                }
+            }
+            lockStripes(stripes);
+            try
+            {
+                for (Booking booking : sorted)
+                {
+                    if (!isRoomFreeLocked(booking.getRoom().getRoomNumber(), booking.getCheckInDay(), booking.getCheckOutDay()))
+                    {
+                        return false;
+                    }
+                }
+                synchronized (ledgerLock)
+                {
+                    IntHashMap<Booking> groupIDs = new IntHashMap<Booking>(sorted.size());
+                    for (Booking booking : sorted)
+                    {
+                        if (bookings.find(booking.getBookingID()) != null || groupIDs.put(booking.getBookingID(), booking) != null)
+                        {
+                            return false;
+                        }
+                    }
+                    for (Booking booking : group)
+                    {
+                        booking.calculateTotalPrice(rates);
+                    }
+                    BookingJournal log = journal;
+                    seq = log == null ? 0 : log.recordBookingsAdded(group);
+                    for (Booking booking : group)
+                    {
+                        bookings.add(booking);
+                        bookingsByName.add(booking.getCustomer().getName(), booking.getBookingID());
+                    }
+                }
+                for (Booking booking : group)
+                {
+                    indexStay(booking);
+                }
+            }
+            finally
+            {
+                unlockStripes(stripes);
+            }
+        }
+        finally
+        {
+            structureLock.readLock().unlock();
+        }
+        awaitDurable(seq);
+        fireBookingsAdded(Collections.unmodifiableList(new ArrayList<Booking>(group)));
+        return true;
+    }
+    
+    /**
+     * Get all bookings.
+     * Taken in O(1) without locking, so reports and screen refreshes never hold up bookings;
+     * bookings added or cancelled afterwards do not show up in the snapshot.
+     * @return Immutable snapshot of all bookings, in the order they were added
+     */
+    public List<Booking> getAllBookings()
+    {
+        return bookings.snapshot();
+    }
+    
+    /**
+     * Cancel a booking by booking ID in constant time
+     * @param bookingID The booking ID to cancel
+     * @return true if booking was cancelled, false if not found
+     */
+    public boolean cancelBooking(int bookingID)
+    {
+        rollCalendarIfDue();
+        Booking booking;
+        long seq;
+        structureLock.readLock().lock();
+        try
+        {
+            synchronized (ledgerLock)
+            {
+                booking = bookings.find(bookingID);
+            }
+            if (booking == null)
+            {
+                return false;
+            }
+            ReentrantLock roomLock = roomLock(booking.getRoom().getRoomNumber());
+            roomLock.lock();
+            try
+            {
+                synchronized (ledgerLock)
+                {
+                    // Another thread may have cancelled it while we waited for the room lock
+                    if (bookings.remove(bookingID) == null)
+                    {
+                        return false;
+                    }
+                    bookingsByName.remove(bookingID);
+                    BookingJournal log = journal;
+                    seq = log == null ? 0 : log.recordBookingCancelled(bookingID);
+                }
+                unindexStay(booking);
+            }
+            finally
+            {
+                roomLock.unlock();
+            }
+        }
+        finally
+        {
+            structureLock.readLock().unlock();
+        }
+        awaitDurable(seq);
+        for (HotelChangeListener listener : listeners)
+        {
+            listener.bookingCancelled(booking);
+        }
+        return true;
+    }
+    
+    /**
+     * Search for available rooms by room type
+     * @param roomType The room type to search for
+     * @return ArrayList of available rooms of the specified type
+     */
+    public ArrayList<Room> searchAvailableRooms(String roomType)
+    {
+        ArrayList<Room> availableRooms = new ArrayList<Room>();
+        structureLock.readLock().lock();
+        try
+        {
+            for (Room room : rooms.getRoomsOfType(roomType))
+            {
+                if (room.isAvailable())
+                {
+                    availableRooms.add(room);
+                }
+            }
+        }
+        finally
+        {
+            structureLock.readLock().unlock();
+        }
+        return availableRooms;
+    }
+    
+    /**
+     * Search for rooms of a type that are available for a whole stay
+     * @param roomType The room type to search for
+     * @param checkInDate The check-in date (DD/MM/YYYY format)
+     * @param checkOutDate The check-out date (DD/MM/YYYY format)
+     * @return ArrayList of rooms free for the stay (empty if the dates are invalid)
+     */
+    public ArrayList<Room> searchAvailableRooms(String roomType, String checkInDate, String checkOutDate)
+    {
+        int checkInDay = BookingDate.tryParse(checkInDate);
+        int checkOutDay = BookingDate.tryParse(checkOutDate);
+        if (checkInDay == BookingDate.INVALID || checkOutDay == BookingDate.INVALID)
+        {
+            return new ArrayList<Room>();
+        }
+        return searchAvailableRooms(roomType, checkInDay, checkOutDay);
+    }
+    
+    /**
+     * Search for rooms of a type that are available for a whole stay.
+     * Only rooms of the requested type are visited, and inside the calendar horizon
+     * each one is checked with a single masked pass over its occupancy words.
+     * The result is a point-in-time answer that concurrent bookings may overtake;
+     * tryBook makes the final check when a room is actually booked.
+     * @param roomType The room type to search for
+     * @param checkInDay The check-in date as an epoch day
+     * @param checkOutDay The check-out date as an epoch day
+     * @return ArrayList of rooms free for the stay (empty if check-out is not after check-in)
+     */
+    public ArrayList<Room> searchAvailableRooms(String roomType, int checkInDay, int checkOutDay)
+    {
+        ArrayList<Room> availableRooms = new ArrayList<Room>();
+        if (checkOutDay <= checkInDay)
+        {
+            return availableRooms;
+        }
+        rollCalendarIfDue();
+        
+        structureLock.readLock().lock();
+        try
+        {
+            List<Room> sameType = rooms.getRoomsOfType(roomType);
+            OccupancyCalendar calendar = occupancy;
+            if (calendar.covers(checkInDay, checkOutDay))
+            {
+                calendar.collectFree(sameType, checkInDay, checkOutDay, availableRooms);
+                return availableRooms;
+            }
+            for (Room room : sameType)
+            {
+                if (!room.isAvailable())
+                {
+                    continue;
+                }
+                ReentrantLock roomLock = roomLock(room.getRoomNumber());
+                roomLock.lock();
+                try
+                {
+                    if (isRoomFreeLocked(room.getRoomNumber(), checkInDay, checkOutDay))
+                    {
+                        availableRooms.add(room);
+                    }
+                }
+                finally
+                {
+                    roomLock.unlock();
+                }
+            }
+            return availableRooms;
+        }
+        finally
+        {
+            structureLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Search for bookings by customer name (case-sensitive)
+     * @param customerName The customer name to search for
+     * @return ArrayList of bookings matching the customer name
+     */
+    public ArrayList<Booking> searchBookingsByCustomerName(final String customerName)
+    {
+        final ArrayList<Booking> matchingBookings = new ArrayList<Booking>();
+        synchronized (ledgerLock)
+        {
+            bookingsByName.forEachExact(customerName, id ->
+            {
+                Booking booking = bookings.find(id);
+                if (booking != null && booking.getCustomer().getName().equals(customerName))
+                {
+                    matchingBookings.add(booking);
+                }
+                return true;
+            });
+        }
+        return matchingBookings;
+    }
+    
+    /**
+     * Search for bookings by customer name, ignoring case and extra spaces
+     * @param customerName The customer name to search for
+     * @return ArrayList of bookings matching the customer name
+     */
+    public ArrayList<Booking> searchBookingsByCustomerNameIgnoreCase(String customerName)
+    {
+        final ArrayList<Booking> matchingBookings = new ArrayList<Booking>();
+        synchronized (ledgerLock)
+        {
+            bookingsByName.forEachExact(customerName, id -> collectBooking(id, matchingBookings));
+        }
+        return matchingBookings;
+    }
+    
+    /**
+     * Search for bookings whose customer name starts with a prefix, ignoring case and extra spaces
+     * @param namePrefix The start of the customer name
+     * @return ArrayList of matching bookings, ordered by customer name
+     */
+    public ArrayList<Booking> searchBookingsByCustomerNamePrefix(String namePrefix)
+    {
+        final ArrayList<Booking> matchingBookings = new ArrayList<Booking>();
+        synchronized (ledgerLock)
+        {
+            bookingsByName.forEachPrefix(namePrefix, id -> collectBooking(id, matchingBookings));
+        }
+        return matchingBookings;
+    }
+    
+    /**
+     * Search for the first bookings whose customer name starts with a prefix, ignoring case and extra spaces.
+     * Costs O(log n) to find the first matching name plus the number of bookings returned, however many match,
+     * so it is quick enough to run on every keystroke of a search-as-you-type box.
+     * @param namePrefix The start of the customer name
+     * @param limit The most bookings to return
+     * @return ArrayList of up to limit matching bookings, ordered by customer name; if it holds fewer than limit, it holds them all
+     */
+    public ArrayList<Booking> searchBookingsByCustomerNamePrefix(String namePrefix, final int limit)
+    {
+        final ArrayList<Booking> matchingBookings = new ArrayList<Booking>();
+        if (limit <= 0)
+        {
+            return matchingBookings;
+        }
+        synchronized (ledgerLock)
+        {
+            bookingsByName.forEachPrefix(namePrefix, id -> collectBooking(id, matchingBookings) && matchingBookings.size() < limit);
+        }
+        return matchingBookings;
+    }
+    
+    /**
+     * Stream the bookings whose customer name starts with a prefix, ignoring case and extra spaces, to a visitor.
+     * The search runs in steps of about a thousand bookings, each under one short hold of the ledger lock, so a
+     * search over a large ledger never holds up bookings for long; the visitor may stop it at any booking, for
+     * example when the search has been cancelled. Bookings added or cancelled while the search runs may or may
+     * not be visited, and customers are visited in name order.
+     * @param namePrefix The start of the customer name
+     * @param visitor The callback to receive each matching booking
+     * @return true if the search ran to the end, false if the visitor stopped it
+     */
+    public boolean forEachBookingByCustomerNamePrefix(String namePrefix, final BookingVisitor visitor)
+    {
+        final boolean[] stopped = new boolean[1];
+        String after = null;
+        do
+        {
+            synchronized (ledgerLock)
+            {
+                after = bookingsByName.forEachPrefixStep(namePrefix, after, SEARCH_STEP_BOOKINGS, id ->
+                {
+                    Booking booking = bookings.find(id);
+                    if (booking != null && !visitor.visit(booking))
+                    {
+                        stopped[0] = true;
+                        return false;
+                    }
+                    return true;
+                });
+            }
+        }
+        while (after != null);
+        return !stopped[0];
+    }
+    
+    /**
+     * Helper method to add a booking found by an index lookup to a result list
+     * @return true so the lookup continues
+     */
+    private boolean collectBooking(int bookingID, ArrayList<Booking> results)
+    {
+        Booking booking = bookings.find(bookingID);
+        if (booking != null)
+        {
+            results.add(booking);
+        }
+        return true;
+    }
+    
+    /**
+     * Search for a booking by booking ID in constant time
+     * @param bookingID The booking ID to search for
+     * @return The Booking object if found, null otherwise
+     */
+    public Booking searchBookingByID(int bookingID)
+    {
+        synchronized (ledgerLock)
+        {
+            return bookings.find(bookingID);
+        }
+    }
+    
+    /**
+     * Check if a specific room is available for a given date range.
+     * Answered from the occupancy calendar when the stay lies inside its horizon,
+     * otherwise from the room's interval index in O(log k) for a room with k bookings.
+     * @param roomNumber The room number to check
+     * @param checkInDate The check-in date (DD/MM/YYYY format)
+     * @param checkOutDate The check-out date (DD/MM/YYYY format)
+     * @return true if room is available for the date range, false otherwise (including invalid dates)
+     */
+    public boolean isRoomAvailableForDates(int roomNumber, String checkInDate, String checkOutDate)
+    {
+        int checkInDay = BookingDate.tryParse(checkInDate);
+        int checkOutDay = BookingDate.tryParse(checkOutDate);
+        if (checkInDay == BookingDate.INVALID || checkOutDay == BookingDate.INVALID)
+        {
+            return false;
+        }
+        return isRoomAvailableForDates(roomNumber, checkInDay, checkOutDay);
+    }
+    
+    /**
+     * Check if a specific room is available for a given range of epoch days
+     * @param roomNumber The room number to check
+     * @param checkInDay The check-in date as an epoch day
+     * @param checkOutDay The check-out date as an epoch day
+     * @return true if room is available for the date range, false otherwise
+     */
+    public boolean isRoomAvailableForDates(int roomNumber, int checkInDay, int checkOutDay)
+    {
+        rollCalendarIfDue();
+        structureLock.readLock().lock();
+        ReentrantLock roomLock = roomLock(roomNumber);
+        roomLock.lock();
+        try
+        {
+            return isRoomFreeLocked(roomNumber, checkInDay, checkOutDay);
+        }
+        finally
+        {
+            roomLock.unlock();
+            structureLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Check a room's availability; the caller holds the structure read lock and the room's lock.
+     * Answered from the occupancy calendar when the stay lies inside its horizon,
+     * otherwise from the room's interval index.
+     */
+    private boolean isRoomFreeLocked(int roomNumber, int checkInDay, int checkOutDay)
+    {
+        OccupancyCalendar calendar = occupancy;
+        if (calendar.covers(checkInDay, checkOutDay))
+        {
+            return calendar.isFree(roomNumber, checkInDay, checkOutDay);
+        }
+        
+        // Stays outside the calendar horizon fall back to the interval index
+        BookingIntervalTree schedule = roomSchedules.get(roomNumber);
+        if (schedule == null)
+        {
+            return true;
+        }
+        // Check for date overlap: new booking starts before an existing one ends and ends after it starts
+        return !schedule.overlaps(checkInDay, checkOutDay);
+    }
+    
+    /**
+     * Register a listener to hear about every later change to rooms, bookings and rates
+     * @param listener The listener to add
+     */
+    public void addChangeListener(HotelChangeListener listener)
+    {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Stop a listener hearing about changes
+     * @param listener The listener to remove
+     */
+    public void removeChangeListener(HotelChangeListener listener)
+    {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Tell the listeners about added bookings, if there are any
+     */
+    private void fireBookingsAdded(List<Booking> added)
+    {
+        if (added.isEmpty())
+        {
+            return;
+        }
+        for (HotelChangeListener listener : listeners)
+        {
+            listener.bookingsAdded(added);
+        }
+    }
+    
+    /**
+     * Tell the listeners about added rooms, if there are any
+     */
+    private void fireRoomsAdded(List<Room> added)
+    {
+        if (added.isEmpty())
+        {
+            return;
+        }
+        for (HotelChangeListener listener : listeners)
+        {
+            listener.roomsAdded(added);
+        }
+    }
+    
+    /**
+     * Tell the listeners about a changed rate
+     */
+    private void fireRatesChanged(String roomType, int fromDay, int toDay)
+    {
+        for (HotelChangeListener listener : listeners)
+        {
+            listener.ratesChanged(roomType, fromDay, toDay);
+        }
+    }
+    
+    /**
+     * Get the lock stripe that guards a room's interval index and calendar row
+     * @param roomNumber The room number
+     * @return The room's lock
+     */
+    private ReentrantLock roomLock(int roomNumber)
+    {
+        return roomLocks[roomStripe(roomNumber)];
+    }
+    
+    /**
+     * Get the index of the lock stripe that guards a room
+     * @param roomNumber The room number
+     * @return The stripe index
+     */
+    private static int roomStripe(int roomNumber)
+    {
+        int h = roomNumber * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (ROOM_LOCK_STRIPES - 1);
+    }
+    
+    /**
+     * Lock a set of room lock stripes in ascending order, the order every multi-room operation uses
+     * @param stripes The stripes to lock, one bit per stripe index
+     */
+    private void lockStripes(long stripes)
+    {
+        for (long rest = stripes; rest != 0; rest &= rest - 1)
+        {
+            roomLocks[Long.numberOfTrailingZeros(rest)].lock();
+        }
+    }
+    
+    /**
+     * Unlock a set of room lock stripes taken by lockStripes
+     * @param stripes The stripes to unlock, one bit per stripe index
+     */
+    private void unlockStripes(long stripes)
+    {
+        for (long rest = stripes; rest != 0; rest &= rest - 1)
+        {
+            roomLocks[Long.numberOfTrailingZeros(rest)].unlock();
+        }
+    }
+    
+    /**
+     * Store a booking in the ledger, index it and queue its journal record; the caller holds
+     * the structure read lock and the room's lock, and the room's index must already exist
+     * @return The journal sequence number to wait for (0 without a journal), or -1 if the booking ID is already in use
+     */
+    private long storeBooking(Booking booking)
+    {
+        long seq;
+        synchronized (ledgerLock)
+        {
+            if (!bookings.add(booking))
+            {
+                return -1;
+            }
+            bookingsByName.add(booking.getCustomer().getName(), booking.getBookingID());
+            BookingJournal log = journal;
+            seq = log == null ? 0 : log.recordBookingAdded(booking);
+        }
+        indexStay(booking);
+        return seq;
+    }
+    
+    /**
+     * Wait until a journal record is on disk; called after releasing all locks
+     * @param seq The record's sequence number, or 0 if nothing was journaled
+     */
+    private void awaitDurable(long seq)
+    {
+        if (seq > 0)
+        {
+            journal.awaitDurable(seq);
+            if (journal.getSegmentBytes() >= CHECKPOINT_BYTES)
+            {
+                checkpoint();
+            }
+        }
+    }
+    
+    /**
+     * Take a checkpoint: capture the rooms, customers and bookings, start a new journal segment
+     * and write the captured state to a snapshot in the background, after which older journal
+     * segments are deleted. Bookings wait only while the state is captured, which takes
+     * O(1) for rooms and bookings and one array copy for customers.
+     * Does nothing without a journal or while another checkpoint is still being written.
+     * @throws IllegalStateException if the journal cannot start a new segment
+     */
+    public void checkpoint()
+    {
+        final BookingJournal log = journal;
+        if (log == null || !checkpointing.compareAndSet(false, true))
+        {
+            return;
+        }
+        final long segment;
+        final List<Room> roomSnapshot;
+        final List<Customer> customerSnapshot;
+        final List<Booking> bookingSnapshot;
+        final RateCalendar rateSnapshot;
+        structureLock.writeLock().lock();
+        try
+        {
+            synchronized (ledgerLock)
+            {
+                roomSnapshot = rooms.getAllRooms();
+                customerSnapshot = customers.getAllCustomers();
+                bookingSnapshot = bookings.snapshot();
+                rateSnapshot = rates.copy();
+                segment = log.rotate();
+            }
+        }
+        catch (RuntimeException e)
+        {
+            checkpointing.set(false);
+            throw e;
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+        checkpointWriter.execute(() ->
+        {
+            try
+            {
+                log.writeSnapshot(segment, roomSnapshot, customerSnapshot, bookingSnapshot, rateSnapshot);
+            }
+            finally
+            {
+                checkpointing.set(false);
+            }
+        });
+    }
+    
+    /**
+     * Close the journal, if any, once all changes and any snapshot being written are on disk,
+     * then release the storage engine's files.
+     * The manager must not be changed after it is closed.
+     */
+    public void close()
+    {
+        checkpointWriter.shutdown();
+        try
+        {
+            checkpointWriter.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        BookingJournal log = journal;
+        if (log != null)
+        {
+            log.close();
+        }
+        engine.close();
+    }
+    
+    /**
+     * Make sure a room has an interval index and a calendar row, creating them if needed.
+     * Rooms in the catalog always have one; this covers bookings for rooms added elsewhere.
+     * @param roomNumber The room number
+     */
+    private void ensureRoomIndex(int roomNumber)
+    {
+        structureLock.readLock().lock();
+        try
+        {
+            if (roomSchedules.get(roomNumber) != null)
+            {
+                return;
+            }
+        }
+        finally
+        {
+            structureLock.readLock().unlock();
+        }
+        structureLock.writeLock().lock();
+        try
+        {
+            createRoomIndex(roomNumber);
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Create a room's interval index and calendar row; the caller holds the structure write lock.
+     * Indexes are created once and never dropped, so booking operations can use them under
+     * the shared lock without changing the index maps.
+     */
+    private void createRoomIndex(int roomNumber)
+    {
+        if (roomSchedules.get(roomNumber) == null)
+        {
+            roomSchedules.put(roomNumber, new BookingIntervalTree());
+        }
+        occupancy.addRoom(roomNumber);
+    }
+    
+    /**
+     * Add a booking's stay to the interval index and calendar row of its room
+     * @param booking The booking to index
+     */
+    private void indexStay(Booking booking)
+    {
+        int roomNumber = booking.getRoom().getRoomNumber();
+        roomSchedules.get(roomNumber).insert(booking.getCheckInDay(), booking.getCheckOutDay(), booking.getBookingID());
+        occupancy.mark(roomNumber, booking.getCheckInDay(), booking.getCheckOutDay());
+    }
+    
+    /**
+     * Remove a booking's stay from the interval index and calendar row of its room
+     * @param booking The booking to remove from the index
+     */
+    private void unindexStay(Booking booking)
+    {
+        final int roomNumber = booking.getRoom().getRoomNumber();
+        BookingIntervalTree schedule = roomSchedules.get(roomNumber);
+        if (schedule != null)
+        {
+            schedule.remove(booking.getCheckInDay(), booking.getBookingID());
+            
+            // Free the days, then re-mark any that another overlapping stay still holds
+            final OccupancyCalendar calendar = occupancy;
+            final int from = booking.getCheckInDay();
+            final int to = booking.getCheckOutDay();
+            calendar.clear(roomNumber, from, to);
+            schedule.forEachOverlap(from, to, (start, end, id) ->
+                calendar.mark(roomNumber, Math.max(start, from), Math.min(end, to)));
+        }
+    }
+    
+    /**
+     * Roll the occupancy calendar's horizon forward once a whole word of days has passed.
+     * The new calendar is rebuilt from the bookings under the structure write lock.
+     */
+    private void rollCalendarIfDue()
+    {
+        int firstDay = BookingDate.today() - CALENDAR_PAST_DAYS;
+        if (firstDay - occupancy.getStartDay() < 64)
+        {
+            return;
+        }
+        structureLock.writeLock().lock();
+        try
+        {
+            if (firstDay - occupancy.getStartDay() < 64)
+            {
+                return;
+            }
+            final OccupancyCalendar rolled = new OccupancyCalendar(firstDay, CALENDAR_HORIZON_DAYS);
+            roomSchedules.forEach((roomNumber, schedule) -> rolled.addRoom(roomNumber));
+            for (Booking booking : bookings.snapshot())
+            {
+                rolled.mark(booking.getRoom().getRoomNumber(), booking.getCheckInDay(), booking.getCheckOutDay());
+            }
+            occupancy = rolled;
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Applies the changes read back from the journal on startup
+     */
+    private class JournalReplay implements BookingJournal.Handler
+    {
+        @Override
+        public void roomAdded(Room room)
+        {
+            addRoom(room);
+        }
+        
+        @Override
+        public void roomRemoved(int roomNumber)
+        {
+            removeRoom(roomNumber);
+        }
+        
+        @Override
+        public void roomChanged(int roomNumber, long priceCentsPerNight, boolean available)
+        {
+            changeRoom(roomNumber, room -> room.change(priceCentsPerNight, available));
+        }
+        
+        @Override
+        public void customerAdded(Customer customer)
+        {
+            customerIDs.reserveThrough(customer.getCustomerID());
+            addCustomer(customer);
+        }
+        
+        @Override
+        public void bookingAdded(Booking booking)
+        {
+            customerIDs.reserveThrough(booking.getCustomer().getCustomerID());
+            bookingIDs.reserveThrough(booking.getBookingID());
+            insertBooking(booking, false);
+        }
+        
+        @Override
+        public void bookingCancelled(int bookingID)
+        {
+            cancelBooking(bookingID);
+        }
+        
+        @Override
+        public void rateSet(String roomType, int fromDay, int toDay, int weekdays, long centsPerNight)
+        {
+            setRate(roomType, fromDay, toDay, weekdays, centsPerNight);
+        }
+        
+        @Override
+        public void rateCleared(String roomType, int fromDay, int toDay, int weekdays)
+        {
+            clearRate(roomType, fromDay, toDay, weekdays);
+        }
+    }
+}
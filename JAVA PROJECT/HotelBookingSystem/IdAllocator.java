@@ -0,0 +1,203 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Allocates unique IDs without locking on the hot path.
+ *
+ * IDs are handed out in three levels. The high-water mark (the next ID no process has
+ * claimed) is kept in a file; a process leases a large block by advancing it under an
+ * exclusive file lock, so several processes sharing the file never receive the same IDs,
+ * and a restart continues after the last leased block. Each thread then takes small chunks
+ * of the process's block with one atomic add, and hands out IDs from its own chunk with
+ * no synchronization at all. IDs are unique but not gap-free: unused parts of a block are
+ * skipped after a restart.
+ * 
+ * When an ID that may already sit in a thread's chunk is reserved (a restored record), the
+ * allocator's generation is advanced, and every thread drops its chunk on its next call and
+ * takes a fresh one from above the reserved ID.
+ */
+public class IdAllocator
+{
+    private static final int PROCESS_BLOCK_SIZE = 1000;
+    private static final int THREAD_CHUNK_SIZE = 16;
+    
+    private final File file;
+    private final int firstID;
+    private final AtomicReference<Block> processBlock;
+    private final ThreadLocal<int[]> threadChunk;
+    private final Object leaseLock;
+    private int nextInMemory;
+    
+    // Advanced whenever thread chunks may hold a reserved ID; a chunk from an older generation is dropped
+    private volatile int generation;
+    
+    /**
+     * A block of IDs leased by this process: [start, limit)
+     */
+    private static class Block
+    {
+        final AtomicInteger next;
+        final int limit;
+        
+        Block(int start, int limit)
+        {
+            this.next = new AtomicInteger(start);
+            this.limit = limit;
+        }
+    }
+    
+    /**
+     * Constructor for IdAllocator class.
+     * @param file The file that holds the persisted high-water mark, or null to keep it in memory only
+     * @param firstID The first ID to hand out when the sequence is new
+     */
+    public IdAllocator(File file, int firstID)
+    {
+        this.file = file;
+        this.firstID = firstID;
+        this.nextInMemory = firstID;
+        this.processBlock = new AtomicReference<Block>(new Block(0, 0));
+        this.leaseLock = new Object();
+        // Each thread's chunk is {next, limit, generation}
+        this.threadChunk = ThreadLocal.withInitial(() -> new int[3]);
+    }
+    
+    /**
+     * Create an allocator whose high-water mark is kept in a data directory.
+     * The file is only created when the first block is leased.
+     * @param dataDirectory The directory to keep the high-water mark file in
+     * @param sequenceName The name of the sequence (used as the file name)
+     * @param firstID The first ID to hand out when the sequence is new
+     * @return The allocator
+     */
+    public static IdAllocator persistent(File dataDirectory, String sequenceName, int firstID)
+    {
+        return new IdAllocator(new File(dataDirectory, sequenceName + ".seq"), firstID);
+    }
+    
+    /**
+     * Get the next unique ID
+     * @return A new ID
+     * @throws IllegalStateException if a new block cannot be leased from the high-water mark file
+     */
+    public int next()
+    {
+        int[] chunk = threadChunk.get();
+        if (chunk[0] >= chunk[1] || chunk[2] != generation)
+        {
+            refill(chunk);
+        }
+        return chunk[0]++;
+    }
+    
+    /**
+     * Make sure later IDs are above a value, for example after records with known IDs were loaded.
+     * An ID inside the process's current block just moves the block past it, so reserving a run of
+     * ascending IDs leases a new block only once per block size rather than once per ID.
+     * An ID below the block's next free ID may lie in a chunk a thread already holds, so the
+     * generation is advanced and those chunks are dropped before they can hand it out.
+     * @param id An ID that is already in use
+     */
+    public void reserveThrough(int id)
+    {
+        synchronized (leaseLock)
+        {
+            Block block = processBlock.get();
+            if (id >= block.limit)
+            {
+                processBlock.set(lease(id + 1));
+                return;
+            }
+            int next = block.next.get();
+            while (next <= id && !block.next.compareAndSet(next, id + 1))
+            {
+                next = block.next.get();
+            }
+            if (next > id)
+            {
+                generation++;
+            }
+        }
+    }
+    
+    /**
+     * Give the calling thread a fresh chunk of IDs from the process block
+     */
+    private void refill(int[] chunk)
+    {
+        // Read before taking the chunk, so a reservation made meanwhile drops it again
+        chunk[2] = generation;
+        while (true)
+        {
+            Block block = processBlock.get();
+            int start = block.next.getAndAdd(THREAD_CHUNK_SIZE);
+            if (start < block.limit)
+            {
+                chunk[0] = start;
+                chunk[1] = Math.min(start + THREAD_CHUNK_SIZE, block.limit);
+                return;
+            }
+            synchronized (leaseLock)
+            {
+                // Only one thread replaces an exhausted block
+                if (processBlock.get() == block)
+                {
+                    processBlock.set(lease(firstID));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Lease a new block for this process by advancing the high-water mark
+     * @param atLeast The lowest ID the block may start at
+     */
+    private Block lease(int atLeast)
+    {
+        if (file == null)
+        {
+            int start = Math.max(nextInMemory, atLeast);
+            nextInMemory = start + PROCESS_BLOCK_SIZE;
+            return new Block(start, nextInMemory);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            // The file lock keeps other processes out while the mark is read and advanced
+            FileLock lock = channel.lock();
+            try
+            {
+                ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+                int start = firstID;
+                if (channel.read(buffer, 0) == Integer.BYTES)
+                {
+                    buffer.flip();
+                    start = buffer.getInt();
+                }
+                start = Math.max(start, atLeast);
+                int limit = start + PROCESS_BLOCK_SIZE;
+                
+                buffer.clear();
+                buffer.putInt(limit);
+                buffer.flip();
+                channel.write(buffer, 0);
+                channel.force(false);
+                return new Block(start, limit);
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Could not lease IDs from " + file.getAbsolutePath(), e);
+        }
+    }
+}
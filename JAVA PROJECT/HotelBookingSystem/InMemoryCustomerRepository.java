@@ -0,0 +1,47 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Customer repository held in memory: a list in the order customers were added,
+ * indexed by customer ID.
+ */
+public class InMemoryCustomerRepository implements CustomerRepository
+{
+    private ArrayList<Customer> customers;
+    private IntHashMap<Customer> byID;
+    
+    /**
+     * Constructor for InMemoryCustomerRepository class.
+     * Creates an empty repository.
+     */
+    public InMemoryCustomerRepository()
+    {
+        customers = new ArrayList<Customer>();
+        byID = new IntHashMap<Customer>();
+    }
+    
+    @Override
+    public int size()
+    {
+        return customers.size();
+    }
+    
+    @Override
+    public void add(Customer customer)
+    {
+        customers.add(customer);
+        byID.put(customer.getCustomerID(), customer);
+    }
+    
+    @Override
+    public Customer find(int customerID)
+    {
+        return byID.get(customerID);
+    }
+    
+    @Override
+    public List<Customer> getAllCustomers()
+    {
+        return new ArrayList<Customer>(customers);
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Storage engine that keeps everything in indexed in-memory repositories and saves nothing.
+ * The fastest engine, for tests, demos and benchmarks.
+ */
+public class InMemoryStorageEngine implements StorageEngine
+{
+    /** Name the engine is selected by */
+    public static final String NAME = "memory";
+    
+    private final RoomRepository rooms;
+    private final CustomerRepository customers;
+    private final BookingRepository bookings;
+    private final IdAllocator customerIDs;
+    private final IdAllocator bookingIDs;
+    
+    /**
+     * Constructor for InMemoryStorageEngine class.
+     * Creates empty repositories and in-memory ID sequences.
+     */
+    public InMemoryStorageEngine()
+    {
+        rooms = new RoomCatalog();
+        customers = new InMemoryCustomerRepository();
+        bookings = new BookingStore();
+        customerIDs = new IdAllocator(null, Customer.FIRST_ID);
+        bookingIDs = new IdAllocator(null, Booking.FIRST_ID);
+    }
+    
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+    
+    @Override
+    public IdAllocator getCustomerIdAllocator()
+    {
+        return customerIDs;
+    }
+    
+    @Override
+    public IdAllocator getBookingIdAllocator()
+    {
+        return bookingIDs;
+    }
+    
+    @Override
+    public RoomRepository getRooms()
+    {
+        return rooms;
+    }
+    
+    @Override
+    public CustomerRepository getCustomers()
+    {
+        return customers;
+    }
+    
+    @Override
+    public BookingRepository getBookings()
+    {
+        return bookings;
+    }
+    
+    @Override
+    public BookingJournal openJournal(BookingJournal.Handler handler)
+    {
+        return null;
+    }
+    
+    @Override
+    public void close()
+    {
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * Hash map from primitive int keys to object values.
+ * Uses open addressing with linear probing so lookups never box the key into an Integer.
+ * Null values are not allowed; a null slot marks an empty position in the table.
+ * @param <V> The type of the mapped values
+ */
+public class IntHashMap<V>
+{
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    
+    /**
+     * Constructor for IntHashMap class.
+     * Creates an empty map with a small default capacity.
+     */
+    public IntHashMap()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor for IntHashMap class.
+     * @param expectedSize The number of entries the map should hold without resizing
+     */
+    public IntHashMap(int expectedSize)
+    {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize)
+        {
+            capacity *= 2;
+        }
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+    
+    /**
+     * Get the number of entries in the map
+     * @return The entry count
+     */
+    public int size()
+    {
+        return size;
+    }
+    
+    /**
+     * Check if the map has no entries
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+    
+    /**
+     * Get the value mapped to a key
+     * @param key The key to look up
+     * @return The mapped value, or null if the key is not present
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key)
+    {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null)
+        {
+            if (keys[index] == key)
+            {
+                return (V) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+    
+    /**
+     * Check if a key is present in the map
+     * @param key The key to look up
+     * @return true if the key is mapped, false otherwise
+     */
+    public boolean containsKey(int key)
+    {
+        return get(key) != null;
+    }
+    
+    /**
+     * Map a key to a value, replacing any previous value
+     * @param key The key to map
+     * @param value The value to store (must not be null)
+     * @return The previous value, or null if the key was not present
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value)
+    {
+        if (value == null)
+        {
+            throw new IllegalArgumentException("IntHashMap does not accept null values");
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null)
+        {
+            if (keys[index] == key)
+            {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        if (size * 4 > keys.length * 3)
+        {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+    
+    /**
+     * Remove a key from the map
+     * @param key The key to remove
+     * @return The value that was mapped to the key, or null if it was not present
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key)
+    {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null)
+        {
+            if (keys[index] == key)
+            {
+                V previous = (V) values[index];
+                deleteSlot(index);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+    
+    /**
+     * Callback for visiting the entries of the map
+     * @param <V> The type of the mapped values
+     */
+    public interface EntryVisitor<V>
+    {
+        /**
+         * Visit one entry
+         * @param key The entry's key
+         * @param value The entry's value
+         */
+        void visit(int key, V value);
+    }
+    
+    /**
+     * Visit every entry in the map, in no particular order.
+     * The map must not be modified during the visit.
+     * @param visitor The callback to receive each entry
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryVisitor<V> visitor)
+    {
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (values[i] != null)
+            {
+                visitor.visit(keys[i], (V) values[i]);
+            }
+        }
+    }
+    
+    /**
+     * Remove all entries from the map
+     */
+    public void clear()
+    {
+        java.util.Arrays.fill(values, null);
+        size = 0;
+    }
+    
+    /**
+     * Empty a slot and shift later entries of the same probe run back into the gap,
+     * so lookups never need tombstones to keep probing past removed keys.
+     */
+    private void deleteSlot(int gap)
+    {
+        int mask = keys.length - 1;
+        int index = (gap + 1) & mask;
+        while (values[index] != null)
+        {
+            int home = hash(keys[index]) & mask;
+            // Move the entry if its home slot is not between the gap and its current slot
+            if (((index - home) & mask) >= ((index - gap) & mask))
+            {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        values[gap] = null;
+    }
+    
+    /**
+     * Grow the table and re-insert every entry
+     */
+    private void resize(int newCapacity)
+    {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[newCapacity];
+        values = new Object[newCapacity];
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldValues[i] != null)
+            {
+                int index = hash(oldKeys[i]) & mask;
+                while (values[index] != null)
+                {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+    
+    /**
+     * Spread the key bits so sequential room numbers and IDs do not cluster
+     */
+    private static int hash(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
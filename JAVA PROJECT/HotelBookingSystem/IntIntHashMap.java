@@ -0,0 +1,192 @@
+/**
+ * Hash map from primitive int keys to non-negative int values.
+ * Uses open addressing with linear probing like IntHashMap, but keeps the values in an int array
+ * so millions of entries cost two ints each and no objects at all.
+ * A value of -1 marks an empty position in the table, so values must not be negative.
+ */
+public class IntIntHashMap
+{
+    /** Returned by get and remove when the key is not present */
+    public static final int MISSING = -1;
+    
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    private int[] keys;
+    private int[] values;
+    private int size;
+    
+    /**
+     * Constructor for IntIntHashMap class.
+     * Creates an empty map with a small default capacity.
+     */
+    public IntIntHashMap()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor for IntIntHashMap class.
+     * @param expectedSize The number of entries the map should hold without resizing
+     */
+    public IntIntHashMap(int expectedSize)
+    {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize)
+        {
+            capacity *= 2;
+        }
+        keys = new int[capacity];
+        values = newValues(capacity);
+    }
+    
+    /**
+     * Get the number of entries in the map
+     * @return The entry count
+     */
+    public int size()
+    {
+        return size;
+    }
+    
+    /**
+     * Get the value mapped to a key
+     * @param key The key to look up
+     * @return The mapped value, or MISSING if the key is not present
+     */
+    public int get(int key)
+    {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != MISSING)
+        {
+            if (keys[index] == key)
+            {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+    
+    /**
+     * Map a key to a value, replacing any previous value
+     * @param key The key to map
+     * @param value The value to store (must not be negative)
+     * @return The previous value, or MISSING if the key was not present
+     */
+    public int put(int key, int value)
+    {
+        if (value < 0)
+        {
+            throw new IllegalArgumentException("IntIntHashMap does not accept negative values");
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != MISSING)
+        {
+            if (keys[index] == key)
+            {
+                int previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        if (size * 4 > keys.length * 3)
+        {
+            resize(keys.length * 2);
+        }
+        return MISSING;
+    }
+    
+    /**
+     * Remove a key from the map
+     * @param key The key to remove
+     * @return The value that was mapped to the key, or MISSING if it was not present
+     */
+    public int remove(int key)
+    {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != MISSING)
+        {
+            if (keys[index] == key)
+            {
+                int previous = values[index];
+                deleteSlot(index);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+    
+    /**
+     * Empty a slot and shift later entries of the same probe run back into the gap
+     */
+    private void deleteSlot(int gap)
+    {
+        int mask = keys.length - 1;
+        int index = (gap + 1) & mask;
+        while (values[index] != MISSING)
+        {
+            int home = hash(keys[index]) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask))
+            {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        values[gap] = MISSING;
+    }
+    
+    /**
+     * Grow the table and re-insert every entry
+     */
+    private void resize(int newCapacity)
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[newCapacity];
+        values = newValues(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldValues[i] != MISSING)
+            {
+                int index = hash(oldKeys[i]) & mask;
+                while (values[index] != MISSING)
+                {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+    
+    /**
+     * Create a value array with every position empty
+     */
+    private static int[] newValues(int capacity)
+    {
+        int[] values = new int[capacity];
+        java.util.Arrays.fill(values, MISSING);
+        return values;
+    }
+    
+    /**
+     * Spread the key bits so sequential IDs do not cluster
+     */
+    private static int hash(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,94 @@
+import java.io.File;
+
+/**
+ * Storage engine that keeps everything in indexed in-memory repositories and journals every
+ * change to the data directory, replaying the journal on startup.
+ * Each change costs a share of a group-committed disk sync.
+ */
+public class JournaledStorageEngine implements StorageEngine
+{
+    /** Name the engine is selected by */
+    public static final String NAME = "journal";
+    
+    private final File dataDirectory;
+    private final RoomRepository rooms;
+    private final CustomerRepository customers;
+    private final BookingRepository bookings;
+    private final IdAllocator customerIDs;
+    private final IdAllocator bookingIDs;
+    
+    /**
+     * Constructor for JournaledStorageEngine class.
+     * New customers and bookings take their IDs from allocators whose high-water marks are kept
+     * beside the journal, so IDs continue across restarts.
+     * @param dataDirectory The directory the journal is kept in
+     */
+    public JournaledStorageEngine(File dataDirectory)
+    {
+        this.dataDirectory = dataDirectory;
+        this.rooms = new RoomCatalog();
+        this.customers = new InMemoryCustomerRepository();
+        this.bookings = new BookingStore();
+        this.customerIDs = IdAllocator.persistent(dataDirectory, "customer-ids", Customer.FIRST_ID);
+        this.bookingIDs = IdAllocator.persistent(dataDirectory, "booking-ids", Booking.FIRST_ID);
+    }
+    
+    /**
+     * Get the data directory
+     * @return The directory the journal is kept in
+     */
+    public File getDataDirectory()
+    {
+        return dataDirectory;
+    }
+    
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+    
+    @Override
+    public IdAllocator getCustomerIdAllocator()
+    {
+        return customerIDs;
+    }
+    
+    @Override
+    public IdAllocator getBookingIdAllocator()
+    {
+        return bookingIDs;
+    }
+    
+    @Override
+    public RoomRepository getRooms()
+    {
+        return rooms;
+    }
+    
+    @Override
+    public CustomerRepository getCustomers()
+    {
+        return customers;
+    }
+    
+    @Override
+    public BookingRepository getBookings()
+    {
+        return bookings;
+    }
+    
+    /**
+     * Open the journal in the data directory
+     */
+    @Override
+    public BookingJournal openJournal(BookingJournal.Handler handler)
+    {
+        return BookingJournal.open(dataDirectory, handler);
+    }
+    
+    @Override
+    public void close()
+    {
+    }
+}
@@ -0,0 +1,225 @@
+import java.util.List;
+
+/**
+ * Occupancy calendar with one bit per room per day over a fixed horizon.
+ * Each room has a row of 64-bit words where bit i is set when the room is occupied on
+ * day (startDay + i). Checking a stay is a masked test over a few words rather than a scan
+ * of bookings. Days outside the horizon are not tracked; callers must check covers() first.
+ */
+public class OccupancyCalendar
+{
+    private final int startDay;
+    private final int wordsPerRoom;
+    private final IntHashMap<long[]> rows;
+    
+    /**
+     * Constructor for OccupancyCalendar class.
+     * @param firstDay The first epoch day to track (rounded down to a whole word)
+     * @param horizonDays The minimum number of days to track from firstDay
+     */
+    public OccupancyCalendar(int firstDay, int horizonDays)
+    {
+        this.startDay = Math.floorDiv(firstDay, 64) * 64;
+        int span = firstDay - startDay + horizonDays;
+        this.wordsPerRoom = (span + 63) / 64;
+        this.rows = new IntHashMap<long[]>();
+    }
+    
+    /**
+     * Get the first tracked epoch day
+     * @return The first day of the horizon
+     */
+    public int getStartDay()
+    {
+        return startDay;
+    }
+    
+    /**
+     * Get the epoch day just after the last tracked day
+     * @return The exclusive end of the horizon
+     */
+    public int getEndDay()
+    {
+        return startDay + wordsPerRoom * 64;
+    }
+    
+    /**
+     * Check if a non-empty range of days lies entirely inside the horizon
+     * @param from The first day of the range
+     * @param to The day after the last day of the range
+     * @return true if every day of the range is tracked, false otherwise
+     */
+    public boolean covers(int from, int to)
+    {
+        return from < to && from >= startDay && to <= getEndDay();
+    }
+    
+    /**
+     * Check if a room is free on every day of a range inside the horizon
+     * @param roomNumber The room to check
+     * @param from The first day of the range
+     * @param to The day after the last day of the range
+     * @return true if no day of the range is occupied, false otherwise
+     */
+    public boolean isFree(int roomNumber, int from, int to)
+    {
+        long[] row = rows.get(roomNumber);
+        if (row == null)
+        {
+            return true;
+        }
+        int lo = from - startDay;
+        int hi = to - startDay - 1;
+        int firstWord = lo >>> 6;
+        int lastWord = hi >>> 6;
+        long firstMask = -1L << (lo & 63);
+        long lastMask = -1L >>> (63 - (hi & 63));
+        if (firstWord == lastWord)
+        {
+            return (row[firstWord] & firstMask & lastMask) == 0;
+        }
+        long occupied = row[firstWord] & firstMask;
+        for (int w = firstWord + 1; w < lastWord; w++)
+        {
+            occupied |= row[w];
+        }
+        occupied |= row[lastWord] & lastMask;
+        return occupied == 0;
+    }
+    
+    /**
+     * Collect the rooms that are free on every day of a range inside the horizon.
+     * The word range and edge masks are worked out once and reused for every room.
+     * Rooms flagged unavailable are skipped.
+     * @param candidates The rooms to check
+     * @param from The first day of the range
+     * @param to The day after the last day of the range
+     * @param result The list that free rooms are appended to
+     */
+    public void collectFree(List<Room> candidates, int from, int to, List<Room> result)
+    {
+        int lo = from - startDay;
+        int hi = to - startDay - 1;
+        int firstWord = lo >>> 6;
+        int lastWord = hi >>> 6;
+        long firstMask = -1L << (lo & 63);
+        long lastMask = -1L >>> (63 - (hi & 63));
+        if (firstWord == lastWord)
+        {
+            firstMask &= lastMask;
+        }
+        for (Room room : candidates)
+        {
+            if (!room.isAvailable())
+            {
+                continue;
+            }
+            long[] row = rows.get(room.getRoomNumber());
+            if (row == null)
+            {
+                result.add(room);
+                continue;
+            }
+            long occupied = row[firstWord] & firstMask;
+            if (lastWord > firstWord)
+            {
+                for (int w = firstWord + 1; w < lastWord; w++)
+                {
+                    occupied |= row[w];
+                }
+                occupied |= row[lastWord] & lastMask;
+            }
+            if (occupied == 0)
+            {
+                result.add(room);
+            }
+        }
+    }
+    
+    /**
+     * Mark the days of a stay as occupied, ignoring any part outside the horizon
+     * @param roomNumber The room that is occupied
+     * @param from The check-in day
+     * @param to The check-out day
+     */
+    public void mark(int roomNumber, int from, int to)
+    {
+        from = Math.max(from, startDay);
+        to = Math.min(to, getEndDay());
+        if (from >= to)
+        {
+            return;
+        }
+        long[] row = rows.get(roomNumber);
+        if (row == null)
+        {
+            row = new long[wordsPerRoom];
+            rows.put(roomNumber, row);
+        }
+        int lo = from - startDay;
+        int hi = to - startDay - 1;
+        int firstWord = lo >>> 6;
+        int lastWord = hi >>> 6;
+        long firstMask = -1L << (lo & 63);
+        long lastMask = -1L >>> (63 - (hi & 63));
+        if (firstWord == lastWord)
+        {
+            row[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        row[firstWord] |= firstMask;
+        for (int w = firstWord + 1; w < lastWord; w++)
+        {
+            row[w] = -1L;
+        }
+        row[lastWord] |= lastMask;
+    }
+    
+    /**
+     * Mark the days of a range as free, ignoring any part outside the horizon
+     * @param roomNumber The room to clear
+     * @param from The first day of the range
+     * @param to The day after the last day of the range
+     */
+    public void clear(int roomNumber, int from, int to)
+    {
+        from = Math.max(from, startDay);
+        to = Math.min(to, getEndDay());
+        long[] row = rows.get(roomNumber);
+        if (row == null || from >= to)
+        {
+            return;
+        }
+        int lo = from - startDay;
+        int hi = to - startDay - 1;
+        int firstWord = lo >>> 6;
+        int lastWord = hi >>> 6;
+        long firstMask = -1L << (lo & 63);
+        long lastMask = -1L >>> (63 - (hi & 63));
+        if (firstWord == lastWord)
+        {
+            row[firstWord] &= ~(firstMask & lastMask);
+            return;
+        }
+        row[firstWord] &= ~firstMask;
+        for (int w = firstWord + 1; w < lastWord; w++)
+        {
+            row[w] = 0;
+        }
+        row[lastWord] &= ~lastMask;
+    }
+    
+    /**
+     * Start tracking a room, giving it an empty row.
+     * Rows are created up front so that marking days never changes the set of rows,
+     * which lets stays of different rooms be marked concurrently.
+     * @param roomNumber The room to track
+     */
+    public void addRoom(int roomNumber)
+    {
+        if (rows.get(roomNumber) == null)
+        {
+            rows.put(roomNumber, new long[wordsPerRoom]);
+        }
+    }
+}
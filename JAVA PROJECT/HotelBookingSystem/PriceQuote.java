@@ -0,0 +1,108 @@
+/**
+ * The price of a possible stay in a room, or the reason it cannot be priced.
+ * Quoting creates no booking or customer, so it uses no IDs and changes nothing; a stay that
+ * cannot be priced is answered with a shared instance, so only a priced stay allocates a quote.
+ */
+public final class PriceQuote
+{
+    /**
+     * Whether a stay was priced, and if not why
+     */
+    public enum Status
+    {
+        /** The room is free for the stay and it was priced */
+        PRICED,
+        /** A date is missing or invalid, or the check-out is not after the check-in */
+        INVALID_DATES,
+        /** No room has that number */
+        NO_SUCH_ROOM,
+        /** The room is already booked for part of the stay */
+        UNAVAILABLE
+    }
+    
+    /** Quote for a stay with invalid dates */
+    public static final PriceQuote INVALID_DATES = new PriceQuote(Status.INVALID_DATES, 0, 0);
+    
+    /** Quote for a room that does not exist */
+    public static final PriceQuote NO_SUCH_ROOM = new PriceQuote(Status.NO_SUCH_ROOM, 0, 0);
+    
+    /** Quote for a room that is booked for part of the stay */
+    public static final PriceQuote UNAVAILABLE = new PriceQuote(Status.UNAVAILABLE, 0, 0);
+    
+    private final Status status;
+    private final int nights;
+    private final long totalCents;
+    
+    private PriceQuote(Status status, int nights, long totalCents)
+    {
+        this.status = status;
+        this.nights = nights;
+        this.totalCents = totalCents;
+    }
+    
+    /**
+     * Create the quote for a priced stay
+     * @param nights The number of nights
+     * @param totalCents The total price in cents
+     * @return The quote
+     */
+    static PriceQuote priced(int nights, long totalCents)
+    {
+        return new PriceQuote(Status.PRICED, nights, totalCents);
+    }
+    
+    /**
+     * Get whether the stay was priced, and if not why
+     * @return The status
+     */
+    public Status getStatus()
+    {
+        return status;
+    }
+    
+    /**
+     * Check whether the stay was priced
+     * @return true if the status is PRICED
+     */
+    public boolean isPriced()
+    {
+        return status == Status.PRICED;
+    }
+    
+    /**
+     * Get the number of nights
+     * @return The nights, or 0 if the stay was not priced
+     */
+    public int getNights()
+    {
+        return nights;
+    }
+    
+    /**
+     * Get the total price in cents
+     * @return The total, or 0 if the stay was not priced
+     */
+    public long getTotalCents()
+    {
+        return totalCents;
+    }
+    
+    /**
+     * Get the total price
+     * @return The total in dollars, or 0 if the stay was not priced
+     */
+    public double getTotalPrice()
+    {
+        return totalCents / 100.0;
+    }
+    
+    /**
+     * Get the total price as text
+     * @return The total in the form "$1234.50"
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("$%d.%02d", totalCents / 100, totalCents % 100);
+    }
+}
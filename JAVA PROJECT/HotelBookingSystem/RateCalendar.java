@@ -0,0 +1,253 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily room rates per room type, for seasonal, weekend and event pricing.
+ *
+ * A rate set for a room type on a day replaces the nightly price of every room of that type for that
+ * night; nights without a set rate use the room's own price. Money is kept in whole cents, so prices
+ * add up exactly. For each room type the set rates are held in an array over the days they span, with
+ * two prefix sums beside it: the cents of the set rates and the number of nights that have one. Any
+ * stay is then priced in O(1), however long it is and however many rate changes it covers.
+ *
+ * Reads never lock: each change builds new arrays for the room type it touches and publishes a new
+ * map, so a stay is always priced against one consistent set of rates.
+ */
+public class RateCalendar
+{
+    /** Weekday mask for every night of the week */
+    public static final int ALL_NIGHTS = 0x7F;
+    
+    /** Weekday mask for Friday and Saturday nights */
+    public static final int WEEKEND_NIGHTS = (1 << 4) | (1 << 5);
+    
+    // Marks a night without a set rate
+    private static final long UNSET = -1;
+    
+    // Longest span of days one room type's rates may cover (about a century)
+    private static final int MAX_SPAN_DAYS = 36525;
+    
+    private volatile Map<String, TypeRates> byType;
+    
+    /**
+     * The set rates of one room type over the days they span; never changed once built
+     */
+    private static final class TypeRates
+    {
+        final int firstDay;
+        final long[] rates;
+        // setCents[i] and setNights[i] cover the nights before firstDay + i
+        final long[] setCents;
+        final int[] setNights;
+        
+        TypeRates(int firstDay, long[] rates)
+        {
+            this.firstDay = firstDay;
+            this.rates = rates;
+            this.setCents = new long[rates.length + 1];
+            this.setNights = new int[rates.length + 1];
+            for (int i = 0; i < rates.length; i++)
+            {
+                boolean set = rates[i] != UNSET;
+                setCents[i + 1] = setCents[i] + (set ? rates[i] : 0);
+                setNights[i + 1] = setNights[i] + (set ? 1 : 0);
+            }
+        }
+        
+        /**
+         * Clamp a day to an index into the prefix sums
+         */
+        int index(int day)
+        {
+            return (int) Math.max(0, Math.min(rates.length, (long) day - firstDay));
+        }
+    }
+    
+    /**
+     * Receives the set rates as runs of consecutive nights with the same rate
+     */
+    public interface RangeVisitor
+    {
+        /**
+         * One run of nights
+         * @param roomType The room type
+         * @param fromDay The first night as an epoch day
+         * @param toDay The day after the last night
+         * @param centsPerNight The rate in cents
+         */
+        void visit(String roomType, int fromDay, int toDay, long centsPerNight);
+    }
+    
+    /**
+     * Constructor for RateCalendar class.
+     * Creates a calendar with no set rates, so every room is priced at its own nightly price.
+     */
+    public RateCalendar()
+    {
+        byType = new HashMap<String, TypeRates>();
+    }
+    
+    /**
+     * Set the rate of a room type for a range of nights
+     * @param roomType The room type
+     * @param fromDay The first night as an epoch day
+     * @param toDay The day after the last night
+     * @param weekdays The nights of the week to set, one bit per day from Monday (bit 0) to Sunday (bit 6)
+     * @param centsPerNight The nightly rate in cents
+     * @throws IllegalArgumentException if the range is empty, the rate negative, or the type's rates would span over a century
+     */
+    public void setRate(String roomType, int fromDay, int toDay, int weekdays, long centsPerNight)
+    {
+        if (centsPerNight < 0)
+        {
+            throw new IllegalArgumentException("Rate must not be negative");
+        }
+        change(roomType, fromDay, toDay, weekdays, centsPerNight);
+    }
+    
+    /**
+     * Remove the set rate of a room type for a range of nights, so those nights use each room's own price again
+     * @param roomType The room type
+     * @param fromDay The first night as an epoch day
+     * @param toDay The day after the last night
+     * @param weekdays The nights of the week to clear, one bit per day from Monday (bit 0) to Sunday (bit 6)
+     * @throws IllegalArgumentException if the range is empty or the type's rates would span over a century
+     */
+    public void clearRate(String roomType, int fromDay, int toDay, int weekdays)
+    {
+        change(roomType, fromDay, toDay, weekdays, UNSET);
+    }
+    
+    /**
+     * Price a stay in a room
+     * @param room The room
+     * @param checkInDay The check-in date as an epoch day
+     * @param checkOutDay The check-out date as an epoch day
+     * @return The total in cents: the set rate for each night that has one, the room's own price for the rest
+     *         (a stay that is not at least one night long is charged one night at the room's own price)
+     */
+    public long price(Room room, int checkInDay, int checkOutDay)
+    {
+        long roomCents = room.getPriceCentsPerNight();
+        if (checkOutDay <= checkInDay)
+        {
+            return roomCents;
+        }
+        TypeRates type = byType.get(room.getRoomType());
+        long nights = (long) checkOutDay - checkInDay;
+        if (type == null)
+        {
+            return nights * roomCents;
+        }
+        int from = type.index(checkInDay);
+        int to = type.index(checkOutDay);
+        return type.setCents[to] - type.setCents[from] + (nights - (type.setNights[to] - type.setNights[from])) * roomCents;
+    }
+    
+    /**
+     * Get the rate of one night in a room
+     * @param room The room
+     * @param day The night as an epoch day
+     * @return The rate in cents
+     */
+    public long getRate(Room room, int day)
+    {
+        return price(room, day, day + 1);
+    }
+    
+    /**
+     * Price many bookings at the current rates, for example to re-price the whole ledger for a report.
+     * The bookings are priced in parallel, each in O(1); the bookings themselves are not changed.
+     * @param bookings The bookings to price (a random-access list such as a booking snapshot)
+     * @return The price of each booking in cents, in list order
+     */
+    public long[] priceAll(final List<Booking> bookings)
+    {
+        long[] prices = new long[bookings.size()];
+        Arrays.parallelSetAll(prices, i ->
+        {
+            Booking booking = bookings.get(i);
+            return price(booking.getRoom(), booking.getCheckInDay(), booking.getCheckOutDay());
+        });
+        return prices;
+    }
+    
+    /**
+     * Visit every set rate, as runs of consecutive nights with the same rate, grouped by room type
+     * @param visitor The callback to receive each run
+     */
+    public void forEachRange(RangeVisitor visitor)
+    {
+        for (Map.Entry<String, TypeRates> entry : byType.entrySet())
+        {
+            TypeRates type = entry.getValue();
+            int i = 0;
+            while (i < type.rates.length)
+            {
+                long rate = type.rates[i];
+                int end = i + 1;
+                while (end < type.rates.length && type.rates[end] == rate)
+                {
+                    end++;
+                }
+                if (rate != UNSET)
+                {
+                    visitor.visit(entry.getKey(), type.firstDay + i, type.firstDay + end, rate);
+                }
+                i = end;
+            }
+        }
+    }
+    
+    /**
+     * Get a copy that later changes to this calendar do not affect, in O(1)
+     * @return The copy
+     */
+    public RateCalendar copy()
+    {
+        RateCalendar copy = new RateCalendar();
+        copy.byType = byType;
+        return copy;
+    }
+    
+    /**
+     * Set or clear a room type's rate for some nights and publish the rebuilt rates
+     */
+    private synchronized void change(String roomType, int fromDay, int toDay, int weekdays, long centsPerNight)
+    {
+        if (toDay <= fromDay)
+        {
+            throw new IllegalArgumentException("Rate range must cover at least one night");
+        }
+        TypeRates old = byType.get(roomType);
+        if (old == null && centsPerNight == UNSET)
+        {
+            return;
+        }
+        int firstDay = old == null ? fromDay : Math.min(old.firstDay, fromDay);
+        long endDay = old == null ? toDay : Math.max((long) old.firstDay + old.rates.length, toDay);
+        if (endDay - firstDay > MAX_SPAN_DAYS)
+        {
+            throw new IllegalArgumentException("Rates for " + roomType + " may span at most " + MAX_SPAN_DAYS + " days");
+        }
+        long[] rates = new long[(int) (endDay - firstDay)];
+        Arrays.fill(rates, UNSET);
+        if (old != null)
+        {
+            System.arraycopy(old.rates, 0, rates, old.firstDay - firstDay, old.rates.length);
+        }
+        for (int day = fromDay; day < toDay; day++)
+        {
+            // Epoch day 0 was a Thursday, so day + 3 counts from Monday
+            if ((weekdays & (1 << Math.floorMod(day + 3, 7))) != 0)
+            {
+                rates[day - firstDay] = centsPerNight;
+            }
+        }
+        Map<String, TypeRates> changed = new HashMap<String, TypeRates>(byType);
+        changed.put(roomType, new TypeRates(firstDay, rates));
+        byType = changed;
+    }
+}
@@ -1,108 +1,171 @@
-/**
- * Represents a room in the hotel.
- * Stores room information including number, type, price, and availability status.
- */
-public class Room
-{
-    private int roomNumber;
-    private String roomType;
-    private double pricePerNight;
-    private boolean isAvailable;
-    
-    /**
-     * Constructor for Room class.
-     * @param roomNumber The unique room number
-     * @param roomType The type of room (Single, Double, Suite)
-     * @param pricePerNight The nightly rate for this room
-     */
-    public Room(int roomNumber, String roomType, double pricePerNight)
-    {
-        this.roomNumber = roomNumber;
-        this.roomType = roomType;
-        this.pricePerNight = pricePerNight;
-        this.isAvailable = true;
-    }
-    
-    /**
-     * Get the room number
-     * @return The room number
-     */
-    public int getRoomNumber()
-    {
-        return roomNumber;
-    }
-    
-    /**
-     * Set the room number
-     * @param roomNumber The room number to set
-     */
-    public void setRoomNumber(int roomNumber)
-    {
-        this.roomNumber = roomNumber;
-    }
-    
-    /**
-     * Get the room type
-     * @return The room type (Single, Double, Suite)
-     */
-    public String getRoomType()
-    {
-        return roomType;
-    }
-    
-    /**
-     * Set the room type
-     * @param roomType The room type to set
-     */
-    public void setRoomType(String roomType)
-    {
-        this.roomType = roomType;
-    }
-    
-    /**
-     * Get the price per night
-     * @return The nightly rate
-     */
-    public double getPricePerNight()
-    {
-        return pricePerNight;
-    }
-    
-    /**
-     * Set the price per night
-     * @param pricePerNight The nightly rate to set
-     */
-    public void setPricePerNight(double pricePerNight)
-    {
-        this.pricePerNight = pricePerNight;
-    }
-    
-    /**
-     * Check if the room is available
-     * @return true if available, false otherwise
-     */
-    public boolean isAvailable()
-    {
-        return isAvailable;
-    }
-    
-    /**
-     * Set the availability status of the room
-     * @param available The availability status to set
-     */
-    public void setAvailable(boolean available)
-    {
-        isAvailable = available;
-    }
-    
-    /**
-     * Return a string representation of the room
-     * @return Room details as a string
-     */
-    @Override
-    public String toString()
-    {
-        return "Room " + roomNumber + " (" + roomType + ") - $" + pricePerNight + 
-               "/night - " + (isAvailable ? "Available" : "Unavailable");
-    }
-}
+/**
+ * Represents a room in the hotel.
+ * Stores room information including number, type, price, and availability status.
+ * The price is kept in whole cents so totals add up exactly.
+ * Once a room is added to a HotelManager its setters refuse changes: the price and availability
+ * are then changed through HotelManager, which journals them.
+ */
+public class Room
+{
+    private int roomNumber;
+    private String roomType;
+    private long priceCentsPerNight;
+    private boolean isAvailable;
+    private boolean inHotel;
+    
+    /**
+     * Constructor for Room class.
+     * @param roomNumber The unique room number
+     * @param roomType The type of room (Single, Double, Suite)
+     * @param pricePerNight The nightly rate for this room
+     */
+    public Room(int roomNumber, String roomType, double pricePerNight)
+    {
+        this.roomNumber = roomNumber;
+        this.roomType = roomType;
+        this.priceCentsPerNight = Math.round(pricePerNight * 100);
+        this.isAvailable = true;
+    }
+    
+    /**
+     * Get the room number
+     * @return The room number
+     */
+    public int getRoomNumber()
+    {
+        return roomNumber;
+    }
+    
+    /**
+     * Set the room number
+     * @param roomNumber The room number to set
+     * @throws IllegalStateException if the room has been added to a hotel
+     */
+    public void setRoomNumber(int roomNumber)
+    {
+        checkNotInHotel();
+        this.roomNumber = roomNumber;
+    }
+    
+    /**
+     * Get the room type
+     * @return The room type (Single, Double, Suite)
+     */
+    public String getRoomType()
+    {
+        return roomType;
+    }
+    
+    /**
+     * Set the room type
+     * @param roomType The room type to set
+     * @throws IllegalStateException if the room has been added to a hotel
+     */
+    public void setRoomType(String roomType)
+    {
+        checkNotInHotel();
+        this.roomType = roomType;
+    }
+    
+    /**
+     * Get the price per night
+     * @return The nightly rate
+     */
+    public double getPricePerNight()
+    {
+        return priceCentsPerNight / 100.0;
+    }
+    
+    /**
+     * Get the price per night in cents
+     * @return The nightly rate in cents
+     */
+    public long getPriceCentsPerNight()
+    {
+        return priceCentsPerNight;
+    }
+    
+    /**
+     * Set the price per night
+     * @param pricePerNight The nightly rate to set (rounded to whole cents)
+     * @throws IllegalStateException if the room has been added to a hotel
+     */
+    public void setPricePerNight(double pricePerNight)
+    {
+        checkNotInHotel();
+        this.priceCentsPerNight = Math.round(pricePerNight * 100);
+    }
+    
+    /**
+     * Set the price per night in cents
+     * @param priceCentsPerNight The nightly rate to set, in cents
+     * @throws IllegalStateException if the room has been added to a hotel
+     */
+    public void setPriceCentsPerNight(long priceCentsPerNight)
+    {
+        checkNotInHotel();
+        this.priceCentsPerNight = priceCentsPerNight;
+    }
+    
+    /**
+     * Check if the room is available
+     * @return true if available, false otherwise
+     */
+    public boolean isAvailable()
+    {
+        return isAvailable;
+    }
+    
+    /**
+     * Set the availability status of the room
+     * @param available The availability status to set
+     * @throws IllegalStateException if the room has been added to a hotel
+     */
+    public void setAvailable(boolean available)
+    {
+        checkNotInHotel();
+        isAvailable = available;
+    }
+    
+    /**
+     * Mark the room as added to a hotel, after which its setters refuse changes
+     */
+    void addedToHotel()
+    {
+        inHotel = true;
+    }
+    
+    /**
+     * Change the price and availability of a room in a hotel; called by HotelManager under its lock
+     * @param priceCentsPerNight The nightly rate in cents
+     * @param available The availability status
+     */
+    void change(long priceCentsPerNight, boolean available)
+    {
+        this.priceCentsPerNight = priceCentsPerNight;
+        this.isAvailable = available;
+    }
+    
+    /**
+     * Refuse a direct change to a room that is in a hotel
+     * @throws IllegalStateException if the room has been added to a hotel
+     */
+    private void checkNotInHotel()
+    {
+        if (inHotel)
+        {
+            throw new IllegalStateException("Room " + roomNumber + " is in a hotel; change it through HotelManager");
+        }
+    }
+    
+    /**
+     * Return a string representation of the room
+     * @return Room details as a string
+     */
+    @Override
+    public String toString()
+    {
+        return "Room " + roomNumber + " (" + roomType + ") - $" + getPricePerNight() + 
+               "/night - " + (isAvailable ? "Available" : "Unavailable");
+    }
+}
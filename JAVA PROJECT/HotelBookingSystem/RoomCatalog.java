@@ -0,0 +1,203 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Catalog of the hotel's rooms, indexed by room number and by room type.
+ * Room numbers map to rooms through an int-keyed hash map, and each room type is given
+ * a small ordinal with its own list of rooms, so lookup and removal take O(1) and listing
+ * the rooms of one type takes time proportional to that type's rooms only.
+ * Removing a room moves the last room of the same list into its place.
+ * The list of all rooms is handed out as an immutable snapshot, rebuilt on the first read
+ * after the catalog changes, so readers never see a half-applied change.
+ */
+public class RoomCatalog implements RoomRepository
+{
+    private IntHashMap<Entry> byNumber;
+    private ArrayList<Room> allRooms;
+    private HashMap<String, Integer> typeOrdinals;
+    private ArrayList<String> typeNames;
+    private ArrayList<ArrayList<Room>> roomsByType;
+    private volatile List<Room> allRoomsSnapshot;
+    
+    /**
+     * A catalogued room and where it sits in the room lists
+     */
+    private static class Entry
+    {
+        final Room room;
+        final int typeOrdinal;
+        int allIndex;
+        int typeIndex;
+        
+        Entry(Room room, int typeOrdinal, int allIndex, int typeIndex)
+        {
+            this.room = room;
+            this.typeOrdinal = typeOrdinal;
+            this.allIndex = allIndex;
+            this.typeIndex = typeIndex;
+        }
+    }
+    
+    /**
+     * Constructor for RoomCatalog class.
+     * Creates an empty catalog.
+     */
+    public RoomCatalog()
+    {
+        byNumber = new IntHashMap<Entry>();
+        allRooms = new ArrayList<Room>();
+        typeOrdinals = new HashMap<String, Integer>();
+        typeNames = new ArrayList<String>();
+        roomsByType = new ArrayList<ArrayList<Room>>();
+    }
+    
+    /**
+     * Get the number of rooms in the catalog
+     * @return The room count
+     */
+    public int size()
+    {
+        return allRooms.size();
+    }
+    
+    /**
+     * Add a room to the catalog
+     * @param room The room to add
+     * @return true if added, false if a room with the same number is already catalogued
+     */
+    public boolean add(Room room)
+    {
+        if (byNumber.containsKey(room.getRoomNumber()))
+        {
+            return false;
+        }
+        int ordinal = ordinalFor(room.getRoomType());
+        ArrayList<Room> sameType = roomsByType.get(ordinal);
+        byNumber.put(room.getRoomNumber(), new Entry(room, ordinal, allRooms.size(), sameType.size()));
+        allRooms.add(room);
+        sameType.add(room);
+        allRoomsSnapshot = null;
+        return true;
+    }
+    
+    /**
+     * Remove a room from the catalog by room number
+     * @param roomNumber The room number to remove
+     * @return The removed Room object, or null if not found
+     */
+    public Room remove(int roomNumber)
+    {
+        Entry entry = byNumber.remove(roomNumber);
+        if (entry == null)
+        {
+            return null;
+        }
+        Room moved = removeAt(allRooms, entry.allIndex);
+        if (moved != null)
+        {
+            byNumber.get(moved.getRoomNumber()).allIndex = entry.allIndex;
+        }
+        moved = removeAt(roomsByType.get(entry.typeOrdinal), entry.typeIndex);
+        if (moved != null)
+        {
+            byNumber.get(moved.getRoomNumber()).typeIndex = entry.typeIndex;
+        }
+        allRoomsSnapshot = null;
+        return entry.room;
+    }
+    
+    /**
+     * Find a room by room number
+     * @param roomNumber The room number to look up
+     * @return The Room object if found, null otherwise
+     */
+    public Room find(int roomNumber)
+    {
+        Entry entry = byNumber.get(roomNumber);
+        return entry == null ? null : entry.room;
+    }
+    
+    /**
+     * Get every room in the catalog.
+     * Several readers may call this at once, but not while the catalog is being changed.
+     * @return Immutable snapshot of all rooms, unaffected by later changes to the catalog
+     */
+    public List<Room> getAllRooms()
+    {
+        List<Room> snapshot = allRoomsSnapshot;
+        if (snapshot == null)
+        {
+            snapshot = Collections.unmodifiableList(new ArrayList<Room>(allRooms));
+            allRoomsSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Get the rooms of one type
+     * @param roomType The room type
+     * @return Read-only list of the rooms of that type (empty if the type is unknown)
+     */
+    public List<Room> getRoomsOfType(String roomType)
+    {
+        Integer ordinal = typeOrdinals.get(roomType);
+        if (ordinal == null)
+        {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(roomsByType.get(ordinal));
+    }
+    
+    /**
+     * Get the ordinal assigned to a room type
+     * @param roomType The room type
+     * @return The type's ordinal, or -1 if no room of that type was ever added
+     */
+    public int getTypeOrdinal(String roomType)
+    {
+        Integer ordinal = typeOrdinals.get(roomType);
+        return ordinal == null ? -1 : ordinal;
+    }
+    
+    /**
+     * Get the names of all room types, indexed by ordinal
+     * @return Read-only list of room type names
+     */
+    public List<String> getTypeNames()
+    {
+        return Collections.unmodifiableList(typeNames);
+    }
+    
+    /**
+     * Get the ordinal of a room type, assigning the next free one to a new type
+     */
+    private int ordinalFor(String roomType)
+    {
+        Integer ordinal = typeOrdinals.get(roomType);
+        if (ordinal == null)
+        {
+            ordinal = typeNames.size();
+            typeOrdinals.put(roomType, ordinal);
+            typeNames.add(roomType);
+            roomsByType.add(new ArrayList<Room>());
+        }
+        return ordinal;
+    }
+    
+    /**
+     * Remove a list element by moving the last element into its place
+     * @return The room that was moved, or null if the removed element was the last one
+     */
+    private static Room removeAt(ArrayList<Room> list, int index)
+    {
+        Room last = list.remove(list.size() - 1);
+        if (index == list.size())
+        {
+            return null;
+        }
+        list.set(index, last);
+        return last;
+    }
+}
@@ -0,0 +1,49 @@
+import java.util.List;
+
+/**
+ * Storage for the hotel's rooms.
+ * Implementations need not be thread-safe: HotelManager changes a repository only under its
+ * exclusive structure lock and reads it under the shared one.
+ */
+public interface RoomRepository
+{
+    /**
+     * Get the number of rooms
+     * @return The room count
+     */
+    int size();
+    
+    /**
+     * Add a room
+     * @param room The room to add
+     * @return true if added, false if a room with the same number is already stored
+     */
+    boolean add(Room room);
+    
+    /**
+     * Remove a room by room number
+     * @param roomNumber The room number to remove
+     * @return The removed Room object, or null if not found
+     */
+    Room remove(int roomNumber);
+    
+    /**
+     * Find a room by room number
+     * @param roomNumber The room number to look up
+     * @return The Room object if found, null otherwise
+     */
+    Room find(int roomNumber);
+    
+    /**
+     * Get every room
+     * @return Immutable snapshot of all rooms, unaffected by later changes
+     */
+    List<Room> getAllRooms();
+    
+    /**
+     * Get the rooms of one type
+     * @param roomType The room type
+     * @return Read-only list of the rooms of that type (empty if the type is unknown)
+     */
+    List<Room> getRoomsOfType(String roomType);
+}
@@ -0,0 +1,93 @@
+import java.io.File;
+
+/**
+ * A storage engine: the repositories HotelManager keeps its rooms, customers and bookings in,
+ * and the journal (if any) that makes changes to them durable.
+ * Engines are picked at startup, by name or from the hotel.storage system property:
+ * - "memory": indexed in-memory repositories, nothing saved
+ * - "journal": indexed in-memory repositories, every change journaled to the data directory
+ */
+public interface StorageEngine
+{
+    /** System property that selects the storage engine */
+    String PROPERTY = "hotel.storage";
+    
+    /**
+     * Get the engine's name
+     * @return The name the engine is selected by
+     */
+    String getName();
+    
+    /**
+     * Get the allocator new customers take their IDs from
+     * @return The customer ID allocator, owned by this engine
+     */
+    IdAllocator getCustomerIdAllocator();
+    
+    /**
+     * Get the allocator new bookings take their IDs from
+     * @return The booking ID allocator, owned by this engine
+     */
+    IdAllocator getBookingIdAllocator();
+    
+    /**
+     * Get the room repository
+     * @return The repository holding the rooms
+     */
+    RoomRepository getRooms();
+    
+    /**
+     * Get the customer repository
+     * @return The repository holding the customers
+     */
+    CustomerRepository getCustomers();
+    
+    /**
+     * Get the booking repository
+     * @return The repository holding the bookings
+     */
+    BookingRepository getBookings();
+    
+    /**
+     * Open the engine's journal, replaying the saved changes into the handler
+     * @param handler The callback that applies each saved change
+     * @return The open journal, or null if the engine keeps nothing on disk
+     */
+    BookingJournal openJournal(BookingJournal.Handler handler);
+    
+    /**
+     * Release the engine's files; called after the journal has been closed
+     */
+    void close();
+    
+    /**
+     * Create a storage engine by name
+     * @param name "memory" or "journal"
+     * @param dataDirectory The directory the journal and data files are kept in
+     * @return The storage engine
+     * @throws IllegalArgumentException if the name is not a known engine
+     */
+    static StorageEngine create(String name, File dataDirectory)
+    {
+        switch (name)
+        {
+            case InMemoryStorageEngine.NAME:
+                return new InMemoryStorageEngine();
+            case JournaledStorageEngine.NAME:
+                return new JournaledStorageEngine(dataDirectory);
+            default:
+                throw new IllegalArgumentException("Unknown storage engine: " + name);
+        }
+    }
+    
+    /**
+     * Create the storage engine named by the hotel.storage system property ("journal" if not set)
+     * @param dataDirectory The directory the journal and data files are kept in
+     * @return The storage engine
+     * @throws IllegalArgumentException if the property names an unknown engine
+     */
+    static StorageEngine fromSystemProperty(File dataDirectory)
+    {
+        return create(System.getProperty(PROPERTY, JournaledStorageEngine.NAME), dataDirectory);
+    }
+}
@@ -0,0 +1,297 @@
+import java.util.Arrays;
+
+/**
+ * An immutable set of the record slots whose bookings were cancelled, for versioned snapshots.
+ * The set is a binary tree over slot numbers: each leaf holds the tombstones of 64 consecutive
+ * slots as a bit mask, and each node counts the tombstones below it. Adding a slot copies only
+ * the path to its leaf, so every earlier version stays valid and versions share the subtrees they
+ * have in common; a snapshot just keeps the version it was taken with. Counting the tombstones
+ * before a slot and finding the slot of the n-th live record take O(log n) on any version.
+ */
+public final class TombstoneSet
+{
+    // A leaf covers 1 << LEAF_SHIFT slots
+    private static final int LEAF_SHIFT = 6;
+    
+    /** The set with no tombstones */
+    public static final TombstoneSet EMPTY = new TombstoneSet(null, LEAF_SHIFT);
+    
+    private final Node root;
+    private final int shift;
+    
+    /**
+     * A subtree: two children, or for a leaf a bit mask, and the number of tombstones it holds.
+     * A missing subtree (null) holds none.
+     */
+    private static final class Node
+    {
+        final Node left;
+        final Node right;
+        final long bits;
+        final int count;
+        
+        Node(Node left, Node right)
+        {
+            this.left = left;
+            this.right = right;
+            this.bits = 0;
+            this.count = count(left) + count(right);
+        }
+        
+        Node(long bits)
+        {
+            this.left = null;
+            this.right = null;
+            this.bits = bits;
+            this.count = Long.bitCount(bits);
+        }
+    }
+    
+    /**
+     * Constructor for TombstoneSet class.
+     * @param root The tree, or null if the set is empty
+     * @param shift The tree covers the slots below 1 << shift
+     */
+    private TombstoneSet(Node root, int shift)
+    {
+        this.root = root;
+        this.shift = shift;
+    }
+    
+    /**
+     * Get the number of tombstones
+     * @return The tombstone count
+     */
+    public int size()
+    {
+        return count(root);
+    }
+    
+    /**
+     * Check if a slot holds a tombstone
+     * @param slot The slot
+     * @return true if the slot's booking was cancelled
+     */
+    public boolean contains(int slot)
+    {
+        return (leafBits(slot) >>> (slot & 63) & 1) != 0;
+    }
+    
+    /**
+     * Get the tombstones of the 64 slots that share a leaf with a slot, for scanning slots in order
+     * @param slot The slot
+     * @return A mask with bit (s & 63) set for every tombstone s in the slot's leaf
+     */
+    public long leafBits(int slot)
+    {
+        if ((slot >>> shift) != 0)
+        {
+            return 0;
+        }
+        Node node = root;
+        for (int s = shift; node != null && s > LEAF_SHIFT; )
+        {
+            s--;
+            node = ((slot >>> s) & 1) == 0 ? node.left : node.right;
+        }
+        return node == null ? 0 : node.bits;
+    }
+    
+    /**
+     * Get the set with one more tombstone
+     * @param slot The slot of the cancelled booking
+     * @return The new version of the set; this one is unchanged
+     */
+    public TombstoneSet add(int slot)
+    {
+        if (contains(slot))
+        {
+            return this;
+        }
+        Node grown = root;
+        int s = shift;
+        while ((slot >>> s) != 0)
+        {
+            grown = grown == null ? null : new Node(grown, null);
+            s++;
+        }
+        return new TombstoneSet(add(grown, s, slot), s);
+    }
+    
+    /**
+     * Count the tombstones before a slot
+     * @param slot The slot
+     * @return The number of tombstones in the slots below it
+     */
+    public int countBelow(int slot)
+    {
+        if ((slot >>> shift) != 0)
+        {
+            return size();
+        }
+        int below = 0;
+        Node node = root;
+        int s = shift;
+        while (node != null)
+        {
+            if (s == LEAF_SHIFT)
+            {
+                return below + Long.bitCount(node.bits & ((1L << (slot & 63)) - 1));
+            }
+            s--;
+            if (((slot >>> s) & 1) == 0)
+            {
+                node = node.left;
+            }
+            else
+            {
+                below += count(node.left);
+                node = node.right;
+            }
+        }
+        return below;
+    }
+    
+    /**
+     * Find the slot of a live record by its position among the live records
+     * @param rank The position, counting only slots without a tombstone (0 for the first)
+     * @return The slot
+     */
+    public int selectLive(int rank)
+    {
+        long liveInTree = (1L << shift) - size();
+        if (rank >= liveInTree)
+        {
+            return (int) ((1L << shift) + (rank - liveInTree));
+        }
+        Node node = root;
+        int s = shift;
+        int base = 0;
+        while (node != null)
+        {
+            if (s == LEAF_SHIFT)
+            {
+                // Drop the first rank free bits; the lowest one left is the slot
+                long free = ~node.bits;
+                for (int i = 0; i < rank; i++)
+                {
+                    free &= free - 1;
+                }
+                return base + Long.numberOfTrailingZeros(free);
+            }
+            s--;
+            int leftLive = (1 << s) - count(node.left);
+            if (rank < leftLive)
+            {
+                node = node.left;
+            }
+            else
+            {
+                rank -= leftLive;
+                base += 1 << s;
+                node = node.right;
+            }
+        }
+        return base + rank;
+    }
+    
+    /**
+     * Find the tombstones added since an earlier version of this set.
+     * Subtrees the two versions share, or that hold as many tombstones in both, are skipped,
+     * so this takes O(log n) per tombstone found.
+     * @param earlier A version this one was built from by adding slots
+     * @param limit Only slots below this are reported
+     * @return The slots in this set but not in the earlier one, in ascending order
+     */
+    public int[] addedSince(TombstoneSet earlier, int limit)
+    {
+        if (earlier.shift > shift)
+        {
+            return new int[0];
+        }
+        // Lift the earlier tree to this one's height; its slots all fall in the leftmost subtree
+        Node older = earlier.root;
+        for (int s = earlier.shift; s < shift; s++)
+        {
+            older = older == null ? null : new Node(older, null);
+        }
+        SlotList added = new SlotList();
+        collectAdded(root, older, shift, 0, limit, added);
+        return Arrays.copyOf(added.slots, added.size);
+    }
+    
+    /**
+     * Growable list of slots
+     */
+    private static class SlotList
+    {
+        int[] slots = new int[4];
+        int size;
+        
+        void add(int slot)
+        {
+            if (size == slots.length)
+            {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+    
+    /**
+     * Count the tombstones in a subtree
+     */
+    private static int count(Node node)
+    {
+        return node == null ? 0 : node.count;
+    }
+    
+    /**
+     * Copy the path to a slot's leaf with the slot's bit set
+     */
+    private static Node add(Node node, int shift, int slot)
+    {
+        if (shift == LEAF_SHIFT)
+        {
+            long bits = node == null ? 0 : node.bits;
+            return new Node(bits | 1L << (slot & 63));
+        }
+        int half = shift - 1;
+        Node left = node == null ? null : node.left;
+        Node right = node == null ? null : node.right;
+        if (((slot >>> half) & 1) == 0)
+        {
+            return new Node(add(left, half, slot), right);
+        }
+        return new Node(left, add(right, half, slot));
+    }
+    
+    /**
+     * Collect the slots set in a newer subtree but not in the older one it was built from
+     */
+    private static void collectAdded(Node newer, Node older, int shift, int base, int limit, SlotList added)
+    {
+        if (newer == null || newer == older || base >= limit || (older != null && newer.count == older.count))
+        {
+            return;
+        }
+        if (shift == LEAF_SHIFT)
+        {
+            long bits = newer.bits & ~(older == null ? 0 : older.bits);
+            while (bits != 0)
+            {
+                int slot = base + Long.numberOfTrailingZeros(bits);
+                if (slot >= limit)
+                {
+                    return;
+                }
+                added.add(slot);
+                bits &= bits - 1;
+            }
+            return;
+        }
+        int half = shift - 1;
+        collectAdded(newer.left, older == null ? null : older.left, half, base, limit, added);
+        collectAdded(newer.right, older == null ? null : older.right, half, base + (1 << half), limit, added);
+    }
+}